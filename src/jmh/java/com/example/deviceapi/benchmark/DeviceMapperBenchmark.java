@@ -0,0 +1,60 @@
+package com.example.deviceapi.benchmark;
+
+import com.example.deviceapi.dto.DeviceRequestDTO;
+import com.example.deviceapi.dto.DeviceResponseDTO;
+import com.example.deviceapi.entity.Device;
+import com.example.deviceapi.entity.DeviceState;
+import com.example.deviceapi.mapper.DeviceMapper;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the MapStruct conversions between devices and their DTOs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DeviceMapperBenchmark {
+
+    private final DeviceMapper mapper = Mappers.getMapper(DeviceMapper.class);
+
+    private Device device;
+    private DeviceRequestDTO request;
+
+    @Setup
+    public void setUp() {
+        device = Devices.device(42);
+        request = new DeviceRequestDTO("Renamed", "Brand-7", DeviceState.INACTIVE);
+    }
+
+    @Benchmark
+    public DeviceResponseDTO toDTO() {
+        return mapper.toDTO(device);
+    }
+
+    @Benchmark
+    public Device toEntity() {
+        return mapper.toEntity(request);
+    }
+
+    @Benchmark
+    public Device update() {
+        Device target = Devices.device(42);
+        mapper.update(request, target);
+        return target;
+    }
+}
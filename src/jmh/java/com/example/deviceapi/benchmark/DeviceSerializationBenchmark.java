@@ -0,0 +1,114 @@
+package com.example.deviceapi.benchmark;
+
+import com.example.deviceapi.config.SerializationConfig;
+import com.example.deviceapi.dto.DeviceResponseDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.cfg.MapperBuilder;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Benchmarks serialization of device lists in the available response encodings: JSON with
+ * {@code indent_output}, compact JSON (also gzipped and with epoch-millis timestamps), CBOR and Smile.
+ *
+ * The setup prints the payload size of each encoding.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DeviceSerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    private List<DeviceResponseDTO> devices;
+    private ObjectWriter compact;
+    private ObjectWriter indented;
+    private ObjectWriter epochMillis;
+    private ObjectWriter cbor;
+    private ObjectWriter smile;
+
+    @Setup
+    public void setUp() throws IOException {
+        devices = Devices.responses(size);
+        ObjectMapper json = configure(JsonMapper.builder());
+        compact = json.writer();
+        indented = json.writer().with(SerializationFeature.INDENT_OUTPUT);
+        epochMillis = json.writer().withAttribute(SerializationConfig.TIME_PARAMETER, SerializationConfig.EPOCH_MILLIS);
+        cbor = configure(CBORMapper.builder()).writer();
+        smile = configure(SmileMapper.builder()).writer();
+
+        System.out.printf("%n%d devices, payload bytes: indented=%d compact=%d gzip=%d epochMillis=%d cbor=%d smile=%d%n",
+                size, indented().length, compact().length, gzip().length, epochMillis().length, cbor().length,
+                smile().length);
+    }
+
+    private static ObjectMapper configure(MapperBuilder<?, ?> builder) {
+        return builder.findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .addModule(new SimpleModule()
+                        .addSerializer(LocalDateTime.class, new SerializationConfig.TimestampSerializer()))
+                .build();
+    }
+
+    @Benchmark
+    public byte[] compact() throws JsonProcessingException {
+        return compact.writeValueAsBytes(devices);
+    }
+
+    @Benchmark
+    public byte[] indented() throws JsonProcessingException {
+        return indented.writeValueAsBytes(devices);
+    }
+
+    @Benchmark
+    public byte[] gzip() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            compact.writeValue(out, devices);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] epochMillis() throws JsonProcessingException {
+        return epochMillis.writeValueAsBytes(devices);
+    }
+
+    @Benchmark
+    public byte[] cbor() throws JsonProcessingException {
+        return cbor.writeValueAsBytes(devices);
+    }
+
+    @Benchmark
+    public byte[] smile() throws JsonProcessingException {
+        return smile.writeValueAsBytes(devices);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.deviceapi.benchmark;
+
+import com.example.deviceapi.dto.DevicePageDTO;
+import com.example.deviceapi.entity.DeviceState;
+import com.example.deviceapi.mapper.DeviceMapper;
+import com.example.deviceapi.service.DeviceService;
+import com.example.deviceapi.service.impl.DeviceServiceImpl;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the list operations of {@link DeviceServiceImpl} over an in-memory repository,
+ * isolating paging and mapping costs from the database.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DeviceServiceBenchmark {
+
+    private static final int DEVICES = 100_000;
+
+    @Param({"100", "1000"})
+    public int limit;
+
+    private DeviceService service;
+
+    @Setup
+    public void setUp() {
+        DeviceMapper mapper = Mappers.getMapper(DeviceMapper.class);
+        service = new DeviceServiceImpl(InMemoryDeviceRepository.of(Devices.devices(DEVICES)), mapper, null, null, null, null, null, null);
+    }
+
+    @Benchmark
+    public DevicePageDTO findAll() {
+        return service.findAll(null, limit, false);
+    }
+
+    @Benchmark
+    public DevicePageDTO findByBrand() {
+        return service.findByBrand("Brand-7", null, limit, false);
+    }
+
+    @Benchmark
+    public DevicePageDTO findByState() {
+        return service.findByState(DeviceState.IN_USE, null, limit, false);
+    }
+}
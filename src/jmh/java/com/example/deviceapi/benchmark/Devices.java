@@ -0,0 +1,44 @@
+package com.example.deviceapi.benchmark;
+
+import com.example.deviceapi.dto.DeviceResponseDTO;
+import com.example.deviceapi.entity.Device;
+import com.example.deviceapi.entity.DeviceState;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+
+/**
+ * Deterministic device fixtures shared by the benchmarks.
+ */
+final class Devices {
+
+    private static final LocalDateTime CREATION_TIME = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private static final DeviceState[] STATES = DeviceState.values();
+
+    private Devices() {
+    }
+
+    static Device device(long id) {
+        return Device.builder()
+                .id(id)
+                .name("Device-" + id)
+                .brand("Brand-" + (id % 100))
+                .state(STATES[(int) (id % STATES.length)])
+                .creationTime(CREATION_TIME.plusMinutes(id))
+                .version(0L)
+                .build();
+    }
+
+    static List<Device> devices(int count) {
+        return LongStream.rangeClosed(1, count).mapToObj(Devices::device).toList();
+    }
+
+    static List<DeviceResponseDTO> responses(int count) {
+        return devices(count).stream()
+                .map(device -> new DeviceResponseDTO(device.getId(), device.getName(), device.getBrand(),
+                        device.getState(), device.getCreationTime(), device.getVersion()))
+                .toList();
+    }
+}
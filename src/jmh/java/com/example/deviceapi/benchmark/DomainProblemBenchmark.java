@@ -0,0 +1,103 @@
+package com.example.deviceapi.benchmark;
+
+import com.example.deviceapi.exception.AbstractCustomThrowableProblem;
+import com.example.deviceapi.exception.DeviceNotFoundException;
+import com.example.deviceapi.exception.ExceptionHandling;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.zalando.problem.Status;
+import org.zalando.problem.ThrowableProblem;
+import org.zalando.problem.jackson.ProblemModule;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Benchmarks a 404 from the service to a rendered body: thrown below a call stack of the given depth, caught,
+ * handled by {@link ExceptionHandling} and serialized.
+ *
+ * {@code legacy} is a problem capturing its stack trace, handled by the generic problem handler and serialized by
+ * Jackson; {@code domain} is a stackless domain problem on the fast path. Allocation rates are reported with the
+ * GC profiler: {@code org.openjdk.jmh.Main DomainProblemBenchmark -prof gc}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DomainProblemBenchmark {
+
+    /**
+     * Roughly the depth of a service call below the dispatcher servlet, filters and proxies.
+     */
+    @Param({"20", "120"})
+    public int depth;
+
+    private ExceptionHandling handling;
+    private ObjectMapper objectMapper;
+    private NativeWebRequest request;
+
+    @Setup
+    public void setUp() {
+        objectMapper = JsonMapper.builder().addModule(new ProblemModule()).build();
+        handling = new ExceptionHandling(new SimpleMeterRegistry(), objectMapper);
+        request = new ServletWebRequest(new MockHttpServletRequest("GET", "/api/v1/devices/1"));
+    }
+
+    @Benchmark
+    public byte[] legacy() throws JsonProcessingException {
+        try {
+            throwAt(depth, LegacyDeviceNotFoundException::new);
+            throw new IllegalStateException();
+        } catch (LegacyDeviceNotFoundException problem) {
+            return objectMapper.writeValueAsBytes(handling.handleProblem(problem, request).getBody());
+        }
+    }
+
+    @Benchmark
+    public Object domain() {
+        try {
+            throwAt(depth, DeviceNotFoundException::new);
+            throw new IllegalStateException();
+        } catch (DeviceNotFoundException problem) {
+            return handling.handleDomainProblem(problem, request).getBody();
+        }
+    }
+
+    private static void throwAt(int depth, Supplier<ThrowableProblem> problem) {
+        if (depth == 0) {
+            throw problem.get();
+        }
+        throwAt(depth - 1, problem);
+    }
+
+    /**
+     * {@link DeviceNotFoundException} as it was before becoming a domain problem.
+     */
+    static class LegacyDeviceNotFoundException extends AbstractCustomThrowableProblem {
+
+        private static final URI TYPE = URI.create("urn:device-api:problem-type:invalid_username");
+
+        LegacyDeviceNotFoundException() {
+            super(TYPE, "Device not found", Status.NOT_FOUND, "Device not found", null);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.deviceapi.benchmark;
+
+import com.example.deviceapi.entity.Device;
+import com.example.deviceapi.entity.DeviceState;
+import com.example.deviceapi.repository.DeviceRepository;
+import org.springframework.data.domain.Limit;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * In-memory stand-in for {@link DeviceRepository}, so that benchmarks measure the service and not the database.
+ *
+ * Only the queries used by the read paths of the service are implemented; any other call fails.
+ */
+final class InMemoryDeviceRepository {
+
+    private InMemoryDeviceRepository() {
+    }
+
+    static DeviceRepository of(List<Device> devices) {
+        NavigableMap<Long, Device> byId = new TreeMap<>();
+        devices.forEach(device -> byId.put(device.getId(), device));
+        return (DeviceRepository) Proxy.newProxyInstance(DeviceRepository.class.getClassLoader(),
+                new Class<?>[]{DeviceRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findById" -> Optional.ofNullable(byId.get((Long) args[0]));
+                    case "findByIdGreaterThanOrderByIdAsc" ->
+                            seek(byId, (Long) args[0], (Limit) args[1], device -> true);
+                    case "findByBrandAndIdGreaterThanOrderByIdAsc" ->
+                            seek(byId, (Long) args[1], (Limit) args[2], device -> device.getBrand().equals(args[0]));
+                    case "findByStateAndIdGreaterThanOrderByIdAsc" ->
+                            seek(byId, (Long) args[1], (Limit) args[2], device -> device.getState() == (DeviceState) args[0]);
+                    case "findByArchivedFalseAndIdGreaterThanOrderByIdAsc" ->
+                            seek(byId, (Long) args[0], (Limit) args[1], device -> !device.isArchived());
+                    case "findByArchivedFalseAndBrandAndIdGreaterThanOrderByIdAsc" ->
+                            seek(byId, (Long) args[1], (Limit) args[2], device -> !device.isArchived() && device.getBrand().equals(args[0]));
+                    case "findByArchivedFalseAndStateAndIdGreaterThanOrderByIdAsc" ->
+                            seek(byId, (Long) args[1], (Limit) args[2], device -> !device.isArchived() && device.getState() == (DeviceState) args[0]);
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "InMemoryDeviceRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static List<Device> seek(NavigableMap<Long, Device> byId, Long after, Limit limit, Predicate<Device> filter) {
+        return byId.tailMap(after, false).values().stream()
+                .filter(filter)
+                .limit(limit.max())
+                .toList();
+    }
+}
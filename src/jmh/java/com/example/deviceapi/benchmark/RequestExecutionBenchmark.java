@@ -0,0 +1,107 @@
+package com.example.deviceapi.benchmark;
+
+import com.example.deviceapi.DeviceApiApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Load test of the device list endpoint with requests served on platform threads and on virtual threads.
+ *
+ * Starts the application against a PostgreSQL container with a small connection pool and drives it with
+ * many concurrent clients, reporting throughput and the latency distribution of each mode. Rate limiting and
+ * load shedding are disabled, as all clients share one address, and any response other than 2xx fails the run.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(256)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequestExecutionBenchmark {
+
+    private static final int DEVICES = 5_000;
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    private PostgreSQLContainer<?> postgres;
+    private ConfigurableApplicationContext application;
+    private HttpClient client;
+    private HttpRequest listRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InterruptedException {
+        postgres = new PostgreSQLContainer<>("postgres:15");
+        postgres.start();
+        application = SpringApplication.run(DeviceApiApplication.class,
+                "--server.port=0",
+                "--server.tomcat.threads.max=64",
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--spring.datasource.url=" + postgres.getJdbcUrl(),
+                "--spring.datasource.username=" + postgres.getUsername(),
+                "--spring.datasource.password=" + postgres.getPassword(),
+                "--spring.datasource.hikari.maximum-pool-size=10",
+                "--device-api.rate-limit.enabled=false",
+                "--device-api.load-shedding.enabled=false",
+                "--spring.jpa.show-sql=false");
+        String baseUrl = "http://localhost:" + application.getEnvironment().getProperty("local.server.port");
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        seed(baseUrl);
+        listRequest = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/devices?limit=100")).GET().build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        application.close();
+        postgres.stop();
+    }
+
+    @Benchmark
+    public int listDevices() throws IOException, InterruptedException {
+        return checkSuccess(client.send(listRequest, HttpResponse.BodyHandlers.discarding()));
+    }
+
+    private static int checkSuccess(HttpResponse<?> response) {
+        int status = response.statusCode();
+        if (status / 100 != 2) {
+            throw new IllegalStateException("Unexpected status " + status + " from " + response.uri());
+        }
+        return status;
+    }
+
+    private void seed(String baseUrl) throws IOException, InterruptedException {
+        String creates = IntStream.range(0, DEVICES)
+                .mapToObj(i -> "{\"name\":\"Device-" + i + "\",\"brand\":\"Brand-" + (i % 100) + "\",\"state\":\"AVAILABLE\"}")
+                .collect(Collectors.joining(",", "{\"create\":[", "]}"));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/devices:batch"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(creates))
+                .build();
+        checkSuccess(client.send(request, HttpResponse.BodyHandlers.discarding()));
+    }
+}
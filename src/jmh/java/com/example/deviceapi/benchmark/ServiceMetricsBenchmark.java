@@ -0,0 +1,75 @@
+package com.example.deviceapi.benchmark;
+
+import com.example.deviceapi.config.ServiceMetricsInterceptor;
+import com.example.deviceapi.dto.DeviceResponseDTO;
+import com.example.deviceapi.mapper.DeviceMapper;
+import com.example.deviceapi.service.DeviceService;
+import com.example.deviceapi.service.impl.DeviceServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.framework.ProxyFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the overhead of the {@link ServiceMetricsInterceptor} timer on a cheap service call,
+ * against the same service called directly and through a proxy without advice.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ServiceMetricsBenchmark {
+
+    private DeviceService plain;
+    private DeviceService proxied;
+    private DeviceService timed;
+
+    @Setup
+    public void setUp() {
+        DeviceMapper mapper = Mappers.getMapper(DeviceMapper.class);
+        plain = new DeviceServiceImpl(InMemoryDeviceRepository.of(Devices.devices(1_000)), mapper, null, null, null, null, null, null);
+        MeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        proxied = proxy(null);
+        timed = proxy(new ServiceMetricsInterceptor(() -> registry));
+    }
+
+    @Benchmark
+    public DeviceResponseDTO plain() {
+        return plain.findById(42L);
+    }
+
+    @Benchmark
+    public DeviceResponseDTO proxied() {
+        return proxied.findById(42L);
+    }
+
+    @Benchmark
+    public DeviceResponseDTO timed() {
+        return timed.findById(42L);
+    }
+
+    private DeviceService proxy(ServiceMetricsInterceptor interceptor) {
+        ProxyFactory factory = new ProxyFactory();
+        factory.setTarget(plain);
+        factory.addInterface(DeviceService.class);
+        if (interceptor != null) {
+            factory.addAdvice(interceptor);
+        }
+        return (DeviceService) factory.getProxy();
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.deviceapi.config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit adapting to latency, after the gradient algorithm.
+ *
+ * The limit follows the ratio of the long-term to the short-term average latency: while requests take as long
+ * as usual it grows by about its square root per sample, and when latency rises above the long-term average,
+ * meaning that requests queue, it shrinks proportionally. It is only adjusted while at least half of it is in use,
+ * so an idle service keeps its limit. Lower priorities may only use a share of the limit, so they are shed first.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    /**
+     * Request priorities, with the share of the limit each may use.
+     */
+    public enum Priority {
+        /**
+         * Collection reads (listings, search, export).
+         */
+        LOW(0.5),
+        /**
+         * Single-device reads.
+         */
+        NORMAL(0.8),
+        /**
+         * Writes, including check-outs.
+         */
+        HIGH(1.0);
+
+        private final double share;
+
+        Priority(double share) {
+            this.share = share;
+        }
+    }
+
+    private static final double SHORT_SMOOTHING = 0.1;
+    private static final double LONG_SMOOTHING = 0.01;
+    private static final double TOLERANCE = 1.5;
+    private static final double LIMIT_SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    private double shortRtt;
+    private double longRtt;
+
+    /**
+     * Creates a new limiter.
+     *
+     * @param initialLimit the initial limit
+     * @param minLimit     the lowest limit
+     * @param maxLimit     the highest limit
+     */
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * Admits a request if its priority's share of the limit is not used up.
+     *
+     * @param priority the priority of the request
+     * @return whether the request was admitted, in which case {@link #release} must follow
+     */
+    public boolean tryAcquire(Priority priority) {
+        int allowed = Math.max(1, (int) (limit * priority.share));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Ends an admitted request.
+     *
+     * @param rttNanos the latency of the request, or a negative value not to sample it
+     */
+    public void release(long rttNanos) {
+        int concurrency = inFlight.getAndDecrement();
+        if (rttNanos > 0) {
+            sample(rttNanos, concurrency);
+        }
+    }
+
+    /**
+     * Gets the current limit.
+     *
+     * @return the limit
+     */
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * Gets the number of admitted requests in progress.
+     *
+     * @return the number of requests
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void sample(long rttNanos, int concurrency) {
+        if (shortRtt == 0) {
+            shortRtt = rttNanos;
+            longRtt = rttNanos;
+            return;
+        }
+        shortRtt += (rttNanos - shortRtt) * SHORT_SMOOTHING;
+        longRtt += (rttNanos - longRtt) * LONG_SMOOTHING;
+        // After a sustained latency drop, let the long-term average catch up instead of growing for too long
+        if (longRtt > 2 * shortRtt) {
+            longRtt *= 0.95;
+        }
+        if (concurrency < limit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+        double target = limit * gradient + Math.sqrt(limit);
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - LIMIT_SMOOTHING) + target * LIMIT_SMOOTHING));
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.deviceapi.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Cache configuration.
+ *
+ * Caches are Caffeine caches (W-TinyLFU eviction) set up by the {@code spring.cache} properties, which also
+ * turn on statistics so that hit, miss and eviction metrics are published under {@code cache.*}.
+ *
+ * The caching advice is ordered ahead of the transaction advice, so it runs outside the transaction:
+ * evictions happen once the change is committed, and not before a concurrent read could load the old row,
+ * while cache hits need no transaction, nor connection, at all. A service call joining an enclosing transaction,
+ * such as the one recording an idempotent response, would still evict before that transaction commits, so the
+ * caches are transaction-aware: evictions made within a transaction are deferred until it has committed.
+ */
+@Configuration
+@EnableCaching(order = CacheConfig.CACHE_ADVICE_ORDER)
+public class CacheConfig {
+
+    /**
+     * Cache of device response DTOs keyed by device ID.
+     */
+    public static final String DEVICES_CACHE = "devices";
+
+    /**
+     * Order of the caching advice, just ahead of the transaction advice, which has the lowest precedence.
+     */
+    static final int CACHE_ADVICE_ORDER = Ordered.LOWEST_PRECEDENCE - 1;
+
+    /**
+     * Makes the auto-configured cache manager transaction-aware.
+     *
+     * @return the bean post processor
+     */
+    @Bean
+    public static BeanPostProcessor transactionAwareCacheManager() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof CacheManager cacheManager
+                        && !(bean instanceof TransactionAwareCacheManagerProxy)
+                        ? new TransactionAwareCacheManagerProxy(cacheManager) : bean;
+            }
+        };
+    }
+}
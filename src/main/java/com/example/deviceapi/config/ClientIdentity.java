@@ -0,0 +1,41 @@
+package com.example.deviceapi.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.security.Principal;
+
+/**
+ * Identifies the client of a request: its authenticated principal, or else its address.
+ *
+ * A header chosen by the client is deliberately not used, as the client could then pose as any other.
+ */
+public final class ClientIdentity {
+
+    private static final String NONE = "none";
+
+    private ClientIdentity() {
+    }
+
+    /**
+     * Identifies the client of a request.
+     *
+     * @param request the request
+     * @return the client identity
+     */
+    public static String of(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        return principal != null ? "principal:" + principal.getName() : "address:" + request.getRemoteAddr();
+    }
+
+    /**
+     * Identifies the client of the request the current thread is serving.
+     *
+     * @return the client identity, or {@code "none"} outside of a request
+     */
+    public static String current() {
+        return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                ? of(attributes.getRequest()) : NONE;
+    }
+}
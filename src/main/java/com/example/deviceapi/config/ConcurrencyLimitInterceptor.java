@@ -0,0 +1,51 @@
+package com.example.deviceapi.config;
+
+import com.example.deviceapi.exception.DatabaseBusyException;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounds the number of concurrent invocations of the intercepted objects.
+ *
+ * Callers wait up to the acquire timeout for a permit and fail with {@link DatabaseBusyException} otherwise,
+ * so a burst of requests queues in front of the service instead of piling up on the connection pool. A caller
+ * already holding a permit of this limiter proceeds without another one, as it already holds its connection.
+ */
+public class ConcurrencyLimitInterceptor implements MethodInterceptor {
+
+    private final Semaphore permits;
+    private final long acquireTimeoutNanos;
+    private final ThreadLocal<Boolean> holding = new ThreadLocal<>();
+
+    /**
+     * Creates a new limiter.
+     *
+     * @param maxConcurrency the maximum number of concurrent invocations
+     * @param acquireTimeout how long a caller waits for a permit
+     */
+    public ConcurrencyLimitInterceptor(int maxConcurrency, Duration acquireTimeout) {
+        this.permits = new Semaphore(maxConcurrency);
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (holding.get() != null) {
+            return invocation.proceed();
+        }
+        if (!permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+            throw new DatabaseBusyException();
+        }
+        holding.set(Boolean.TRUE);
+        try {
+            return invocation.proceed();
+        } finally {
+            holding.remove();
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.deviceapi.config;
+
+import com.example.deviceapi.config.AdaptiveConcurrencyLimiter.Priority;
+import com.example.deviceapi.exception.ServiceOverloadedException;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+/**
+ * Sheds requests beyond the {@link AdaptiveConcurrencyLimiter} limit with a {@link ServiceOverloadedException}
+ * problem.
+ *
+ * Writes have the highest priority, single-device reads come next and collection reads (listings, search, export)
+ * are shed first. The change feed is not limited, since its streams stay open for as long as clients listen.
+ * Asynchronous requests, such as the NDJSON export, hold their slot until the response completes but are not
+ * sampled, as their latency is the length of the stream rather than of the work.
+ */
+public class LoadSheddingFilter extends OncePerRequestFilter {
+
+    private static final Pattern SINGLE_DEVICE = Pattern.compile("/api/v1/devices/\\d+");
+    private static final String CHANGE_FEED = "/api/v1/devices/changes";
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final HandlerExceptionResolver exceptionResolver;
+
+    public LoadSheddingFilter(AdaptiveConcurrencyLimiter limiter, HandlerExceptionResolver exceptionResolver) {
+        this.limiter = limiter;
+        this.exceptionResolver = exceptionResolver;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return CHANGE_FEED.equals(path(request));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!limiter.tryAcquire(priority(request))) {
+            ProblemResponses.resolve(exceptionResolver, request, response, new ServiceOverloadedException());
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnComplete());
+            } else {
+                limiter.release(System.nanoTime() - start);
+            }
+        }
+    }
+
+    static Priority priority(HttpServletRequest request) {
+        String method = request.getMethod();
+        if (!HttpMethod.GET.matches(method) && !HttpMethod.HEAD.matches(method)) {
+            return Priority.HIGH;
+        }
+        return SINGLE_DEVICE.matcher(path(request)).matches() ? Priority.NORMAL : Priority.LOW;
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    /**
+     * Releases the slot of an asynchronous request once its response completes, which also follows a timeout or
+     * an error.
+     */
+    private final class ReleaseOnComplete implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            limiter.release(-1);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
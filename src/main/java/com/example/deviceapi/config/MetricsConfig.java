@@ -0,0 +1,43 @@
+package com.example.deviceapi.config;
+
+import com.example.deviceapi.service.DeviceService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Metrics configuration.
+ *
+ * Times every {@link DeviceService} operation; histogram and SLO buckets of the timer are set through
+ * {@code management.metrics.distribution} properties.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Wraps the device service in a {@link ServiceMetricsInterceptor}.
+     *
+     * @param registry the meter registry, resolved on first use
+     * @return the bean post processor
+     */
+    @Bean
+    public static BeanPostProcessor deviceServiceMetrics(ObjectProvider<MeterRegistry> registry) {
+        ServiceMetricsInterceptor interceptor = new ServiceMetricsInterceptor(registry::getObject);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DeviceService)) {
+                    return bean;
+                }
+                ProxyFactory factory = new ProxyFactory();
+                factory.setTarget(bean);
+                factory.addInterface(DeviceService.class);
+                factory.addAdvice(interceptor);
+                return factory.getProxy(DeviceService.class.getClassLoader());
+            }
+        };
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.deviceapi.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.zalando.problem.ThrowableProblem;
+
+import java.io.IOException;
+
+/**
+ * Writes problems raised by servlet filters, which run outside of the dispatcher servlet and its
+ * {@code ExceptionHandling} advice.
+ */
+final class ProblemResponses {
+
+    private ProblemResponses() {
+    }
+
+    /**
+     * Hands a problem to the exception resolvers of the dispatcher servlet, falling back to a plain error.
+     *
+     * @param exceptionResolver the exception resolver
+     * @param request           the request
+     * @param response          the response
+     * @param problem           the problem
+     * @throws IOException if the error cannot be sent
+     */
+    static void resolve(HandlerExceptionResolver exceptionResolver, HttpServletRequest request,
+                        HttpServletResponse response, ThrowableProblem problem) throws IOException {
+        if (exceptionResolver.resolveException(request, response, null, problem) == null) {
+            response.sendError(problem.getStatus().getStatusCode(), problem.getDetail());
+        }
+    }
+}
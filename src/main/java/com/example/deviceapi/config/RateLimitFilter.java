@@ -0,0 +1,88 @@
+package com.example.deviceapi.config;
+
+import com.example.deviceapi.exception.TooManyRequestsException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits the request rate of every client with a token bucket.
+ *
+ * Clients are identified by {@link ClientIdentity}, their authenticated principal or else their address: a header
+ * chosen by the client would let it take a fresh bucket, and its burst, on every request. Behind a proxy the address is the one the
+ * {@code server.forward-headers-strategy} resolves from the {@code X-Forwarded-For} of trusted proxies. Buckets are
+ * lock-free: each one is a single theoretical arrival time advanced by compare-and-set (the generic cell rate
+ * algorithm), which admits exactly what a token bucket of the same rate and burst admits. Rejected requests get
+ * a {@link TooManyRequestsException} problem with a {@code Retry-After} header.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final Cache<String, AtomicLong> buckets;
+    private final HandlerExceptionResolver exceptionResolver;
+
+    /**
+     * Creates a new filter.
+     *
+     * @param requestsPerSecond the sustained request rate of a client
+     * @param burst             the number of requests a client may send at once
+     * @param maxClients        the number of client buckets kept, the least recently used being dropped beyond it
+     * @param exceptionResolver resolves rejections into problem responses
+     */
+    public RateLimitFilter(double requestsPerSecond, int burst, long maxClients,
+                           HandlerExceptionResolver exceptionResolver) {
+        this.emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * (burst - 1);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(Duration.ofNanos(emissionIntervalNanos * burst).plusSeconds(1))
+                .build();
+        this.exceptionResolver = exceptionResolver;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long waitNanos = tryAcquire(ClientIdentity.of(request), System.nanoTime());
+        if (waitNanos > 0) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos))));
+            ProblemResponses.resolve(exceptionResolver, request, response, new TooManyRequestsException());
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * Takes a token from the bucket of a client.
+     *
+     * @param client the client
+     * @param now    the current {@link System#nanoTime()}
+     * @return 0 if a token was taken, otherwise how long until one is available, in nanoseconds
+     */
+    long tryAcquire(String client, long now) {
+        AtomicLong arrival = buckets.get(client, key -> new AtomicLong(now));
+        while (true) {
+            long current = arrival.get();
+            long theoretical = Math.max(current, now);
+            long wait = theoretical - now - burstToleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (arrival.compareAndSet(current, theoretical + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.deviceapi.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.zalando.problem.jackson.ProblemModule;
+
+/**
+ * Configuration of the reactive profile.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveConfig {
+
+    /**
+     * Serializes Problem bodies without stack traces on the WebFlux codecs.
+     *
+     * @return the problem module
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public ProblemModule problemModule() {
+        return new ProblemModule();
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.deviceapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Configuration routing read-only transactions to read replicas ({@code device-api.read-replicas.enabled=true}).
+ *
+ * The application data source only fetches a physical connection on the first statement of a transaction,
+ * once the transaction is known to be read-only; read-only transactions then get a connection from the
+ * {@link ReadReplicaDataSource}, all others from the primary pool configured by {@code spring.datasource}.
+ */
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(name = "device-api.read-replicas.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    /**
+     * The primary connection pool.
+     *
+     * @param properties the {@code spring.datasource} properties
+     * @return the primary pool
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * The replica connection pools.
+     *
+     * @param primaryDataSource the primary pool, whose settings the replica pools copy
+     * @param urls              the JDBC URLs of the replicas
+     * @param maxLag            the replay lag above which a replica stops receiving reads
+     * @return the replica data source
+     */
+    @Bean
+    public ReadReplicaDataSource readReplicaDataSource(
+            HikariDataSource primaryDataSource,
+            @Value("${device-api.read-replicas.urls}") List<String> urls,
+            @Value("${device-api.read-replicas.max-lag}") Duration maxLag) {
+        return new ReadReplicaDataSource(primaryDataSource, urls, maxLag);
+    }
+
+    /**
+     * The application data source.
+     *
+     * @param primaryDataSource     the primary pool
+     * @param readReplicaDataSource the replica data source
+     * @return the routing data source
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReadReplicaDataSource readReplicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(readReplicaDataSource);
+        return dataSource;
+    }
+
+    /**
+     * Keeps clients reading from the primary for a while after their writes.
+     *
+     * @param stickiness how long after a write the client keeps reading from the primary
+     * @return the filter
+     */
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(@Value("${device-api.read-replicas.stickiness}") Duration stickiness) {
+        return new ReadYourWritesFilter(stickiness);
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.deviceapi.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Data source of read-only transactions, spreading them round-robin over the healthy replicas.
+ *
+ * A replica is healthy while it answers the periodic check and replays the primary's changes with less
+ * than the maximum lag. Reads go to the primary when no replica is healthy, when a replica refuses
+ * a connection, and when {@link ReadYourWrites} requires it. A replica whose own pool has no connection free in
+ * time is busy rather than down: the read moves on to the next replica, but the replica stays healthy.
+ */
+@Slf4j
+public class ReadReplicaDataSource extends AbstractDataSource implements Closeable {
+
+    /**
+     * Replay lag in seconds; zero on a server that is not a standby or has replayed everything it received.
+     */
+    private static final String LAG_QUERY = """
+            SELECT CASE
+                     WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                     ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)
+                   END""";
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final Duration maxLag;
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * Creates one connection pool per replica, configured like the primary pool.
+     *
+     * @param primary the primary pool
+     * @param urls    the JDBC URLs of the replicas
+     * @param maxLag  the replay lag above which a replica stops receiving reads
+     */
+    public ReadReplicaDataSource(HikariDataSource primary, List<String> urls, Duration maxLag) {
+        this.primary = primary;
+        this.maxLag = maxLag;
+        this.replicas = IntStream.range(0, urls.size())
+                .mapToObj(i -> {
+                    HikariConfig config = new HikariConfig();
+                    primary.copyStateTo(config);
+                    config.setJdbcUrl(urls.get(i));
+                    config.setPoolName("replica-" + i);
+                    config.setReadOnly(true);
+                    return new Replica(urls.get(i), new HikariDataSource(config));
+                })
+                .toList();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!ReadYourWrites.isRequired()) {
+            for (int attempt = 0; attempt < replicas.size(); attempt++) {
+                Replica replica = replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+                if (replica.healthy) {
+                    try {
+                        return replica.pool.getConnection();
+                    } catch (SQLException e) {
+                        if (!isPoolExhausted(e)) {
+                            markUnhealthy(replica, e.getMessage());
+                        }
+                    }
+                }
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getConnection();
+    }
+
+    /**
+     * Measures the replay lag of every replica and updates its health.
+     */
+    @Scheduled(fixedDelayString = "${device-api.read-replicas.health-check-interval}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.pool.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet result = statement.executeQuery(LAG_QUERY)) {
+                result.next();
+                Duration lag = Duration.ofMillis((long) (result.getDouble(1) * 1000));
+                if (lag.compareTo(maxLag) > 0) {
+                    markUnhealthy(replica, "replay lag of " + lag);
+                } else if (!replica.healthy) {
+                    log.info("Replica {} is back, routing reads to it", replica.url);
+                    replica.healthy = true;
+                }
+            } catch (SQLException e) {
+                if (!isPoolExhausted(e)) {
+                    markUnhealthy(replica, e.getMessage());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.pool.close());
+    }
+
+    /**
+     * Tells whether a connection request failed only because the pool had no connection free in time: Hikari then
+     * throws a {@link SQLTransientConnectionException} without cause, whereas it attaches the last connection
+     * failure when the server cannot be reached.
+     */
+    static boolean isPoolExhausted(SQLException exception) {
+        return exception instanceof SQLTransientConnectionException && exception.getCause() == null;
+    }
+
+    private static void markUnhealthy(Replica replica, String reason) {
+        if (replica.healthy) {
+            log.warn("Replica {} is unavailable ({}), routing its reads to the primary", replica.url, reason);
+            replica.healthy = false;
+        }
+    }
+
+    private static final class Replica {
+
+        private final String url;
+        private final HikariDataSource pool;
+        private volatile boolean healthy = true;
+
+        private Replica(String url, HikariDataSource pool) {
+            this.url = url;
+            this.pool = pool;
+        }
+    }
+}
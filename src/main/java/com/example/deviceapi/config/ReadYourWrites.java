@@ -0,0 +1,51 @@
+package com.example.deviceapi.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Marks the reads of the current thread as needing to see the client's own recent writes,
+ * which sends them to the primary database instead of a replica.
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    /**
+     * Whether reads of the current thread must go to the primary.
+     *
+     * @return {@code true} if they must
+     */
+    public static boolean isRequired() {
+        return PRIMARY.get() != null;
+    }
+
+    /**
+     * Runs a read on the primary, whatever the current thread requires otherwise.
+     *
+     * @param read the read
+     * @param <T>  the type of the result
+     * @return the result of the read
+     */
+    public static <T> T onPrimary(Supplier<T> read) {
+        if (isRequired()) {
+            return read.get();
+        }
+        require();
+        try {
+            return read.get();
+        } finally {
+            clear();
+        }
+    }
+
+    static void require() {
+        PRIMARY.set(Boolean.TRUE);
+    }
+
+    static void clear() {
+        PRIMARY.remove();
+    }
+}
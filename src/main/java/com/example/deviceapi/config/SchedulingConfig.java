@@ -0,0 +1,14 @@
+package com.example.deviceapi.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Scheduling configuration.
+ *
+ * Enables the {@code @Scheduled} background jobs, such as the reconciliation of the device counts.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,136 @@
+package com.example.deviceapi.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.lang.Nullable;
+import org.springframework.util.MimeType;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Configuration of the response encodings.
+ *
+ * Besides JSON, responses are available as CBOR ({@code application/cbor}) and Smile
+ * ({@code application/x-jackson-smile}) through the {@code Accept} header. Adding the {@code time=epoch-millis}
+ * parameter to the accepted media type, e.g. {@code application/json;time=epoch-millis}, writes timestamps as
+ * epoch milliseconds (in the server's time zone, where they are recorded) instead of ISO-8601 strings.
+ */
+@Configuration
+@Profile("!reactive")
+public class SerializationConfig {
+
+    /**
+     * Media type parameter selecting the timestamp format.
+     */
+    public static final String TIME_PARAMETER = "time";
+
+    /**
+     * {@link #TIME_PARAMETER} value writing timestamps as epoch milliseconds.
+     */
+    public static final String EPOCH_MILLIS = "epoch-millis";
+
+    /**
+     * Lets the timestamp format be chosen per response.
+     *
+     * @return the customizer
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer timestampFormatCustomizer() {
+        return builder -> builder.serializerByType(LocalDateTime.class, new TimestampSerializer());
+    }
+
+    /**
+     * The JSON converter.
+     *
+     * @param objectMapper the application object mapper
+     * @return the converter
+     */
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2HttpMessageConverter(objectMapper) {
+            @Override
+            protected ObjectWriter customizeWriter(ObjectWriter writer, @Nullable MimeType mimeType, Object object) {
+                return withTimestampFormat(writer, mimeType);
+            }
+        };
+    }
+
+    /**
+     * The CBOR converter, configured like the JSON one.
+     *
+     * @param builder the application object mapper builder
+     * @return the converter
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter mappingJackson2CborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(binaryMapper(builder.factory(new CBORFactory()))) {
+            @Override
+            protected ObjectWriter customizeWriter(ObjectWriter writer, @Nullable MimeType mimeType, Object object) {
+                return withTimestampFormat(writer, mimeType);
+            }
+        };
+    }
+
+    /**
+     * The Smile converter, configured like the JSON one.
+     *
+     * @param builder the application object mapper builder
+     * @return the converter
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter mappingJackson2SmileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(binaryMapper(builder.factory(new SmileFactory()))) {
+            @Override
+            protected ObjectWriter customizeWriter(ObjectWriter writer, @Nullable MimeType mimeType, Object object) {
+                return withTimestampFormat(writer, mimeType);
+            }
+        };
+    }
+
+    private static ObjectMapper binaryMapper(Jackson2ObjectMapperBuilder builder) {
+        return builder.build().disable(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    static ObjectWriter withTimestampFormat(ObjectWriter writer, @Nullable MimeType mimeType) {
+        if (mimeType != null && EPOCH_MILLIS.equals(mimeType.getParameter(TIME_PARAMETER))) {
+            return writer.withAttribute(TIME_PARAMETER, EPOCH_MILLIS);
+        }
+        return writer;
+    }
+
+    /**
+     * Writes {@link LocalDateTime}s as epoch milliseconds when the writer asks for it, as ISO-8601 otherwise.
+     */
+    public static class TimestampSerializer extends StdSerializer<LocalDateTime> {
+
+        public TimestampSerializer() {
+            super(LocalDateTime.class);
+        }
+
+        @Override
+        public void serialize(LocalDateTime value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            if (EPOCH_MILLIS.equals(provider.getAttribute(TIME_PARAMETER))) {
+                generator.writeNumber(value.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            } else {
+                LocalDateTimeSerializer.INSTANCE.serialize(value, generator, provider);
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.deviceapi.config;
+
+import com.example.deviceapi.dto.DeviceRequestDTO;
+import com.example.deviceapi.entity.DeviceState;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.zalando.problem.ThrowableProblem;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Times every invocation of the intercepted service in the {@value #METRIC} timer.
+ *
+ * Tags are kept low-cardinality: the method name as {@code operation}, {@code success} or the problem status
+ * as {@code outcome}, and the device state the call is about, if any, as {@code state}. Each timer is registered
+ * once per tag combination and then looked up, so that a call does not build and register a timer.
+ */
+public class ServiceMetricsInterceptor implements MethodInterceptor {
+
+    /**
+     * Name of the timer.
+     */
+    public static final String METRIC = "device.service";
+
+    private static final String NONE = "none";
+
+    private final Supplier<MeterRegistry> registrySupplier;
+    private final ConcurrentMap<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+    private volatile MeterRegistry registry;
+
+    /**
+     * Creates a new interceptor.
+     *
+     * @param registry supplies the registry on first use, so that it is not created early by a post processor
+     */
+    public ServiceMetricsInterceptor(Supplier<MeterRegistry> registry) {
+        this.registrySupplier = registry;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        long start = System.nanoTime();
+        String outcome = "success";
+        try {
+            return invocation.proceed();
+        } catch (ThrowableProblem problem) {
+            outcome = problem.getStatus() == null ? "error" : outcome(problem.getStatus().getReasonPhrase());
+            throw problem;
+        } catch (Throwable throwable) {
+            outcome = "error";
+            throw throwable;
+        } finally {
+            timers.computeIfAbsent(
+                            new TimerKey(invocation.getMethod().getName(), outcome, state(invocation.getArguments())),
+                            key -> Timer.builder(METRIC)
+                                    .tag("operation", key.operation())
+                                    .tag("outcome", key.outcome())
+                                    .tag("state", key.state())
+                                    .register(registry()))
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private MeterRegistry registry() {
+        MeterRegistry resolved = registry;
+        if (resolved == null) {
+            resolved = registrySupplier.get();
+            registry = resolved;
+        }
+        return resolved;
+    }
+
+    private static String outcome(String reasonPhrase) {
+        return reasonPhrase.toLowerCase(Locale.ROOT).replace(' ', '_');
+    }
+
+    private static String state(Object[] arguments) {
+        for (Object argument : arguments) {
+            if (argument instanceof DeviceState state) {
+                return state.name();
+            }
+            if (argument instanceof DeviceRequestDTO request && request.state() != null) {
+                return request.state().name();
+            }
+        }
+        return NONE;
+    }
+
+    private record TimerKey(String operation, String outcome, String state) {
+    }
+}
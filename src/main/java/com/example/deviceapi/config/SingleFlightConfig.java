@@ -0,0 +1,65 @@
+package com.example.deviceapi.config;
+
+import com.example.deviceapi.service.DeviceService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Set;
+
+/**
+ * Configuration coalescing concurrent identical reads of the device service
+ * ({@code device-api.single-flight.enabled}, on by default).
+ */
+@Configuration
+@ConditionalOnProperty(name = "device-api.single-flight.enabled", havingValue = "true", matchIfMissing = true)
+public class SingleFlightConfig {
+
+    /**
+     * Creates the interceptor coalescing the device service reads, a bean of its own so that it hears of the
+     * archived devices.
+     *
+     * @param operations      the names of the service methods to coalesce
+     * @param writeOperations the names of the service methods changing what the coalesced methods return
+     * @param maxWaiters      the maximum number of callers waiting for one invocation
+     * @param registry        the meter registry, resolved when the device service is wrapped rather than by the
+     *                        post processor itself
+     * @return the interceptor
+     */
+    @Bean
+    public static SingleFlightInterceptor deviceServiceSingleFlightInterceptor(
+            @Value("${device-api.single-flight.operations}") Set<String> operations,
+            @Value("${device-api.single-flight.writes}") Set<String> writeOperations,
+            @Value("${device-api.single-flight.max-waiters}") int maxWaiters,
+            ObjectProvider<MeterRegistry> registry) {
+        return new SingleFlightInterceptor(operations, writeOperations, maxWaiters, registry.getObject());
+    }
+
+    /**
+     * Wraps the device service in the {@link SingleFlightInterceptor}.
+     *
+     * @param interceptor the interceptor, resolved when the device service is wrapped
+     * @return the bean post processor
+     */
+    @Bean
+    public static BeanPostProcessor deviceServiceSingleFlight(ObjectProvider<SingleFlightInterceptor> interceptor) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DeviceService)) {
+                    return bean;
+                }
+                ProxyFactory factory = new ProxyFactory();
+                factory.setTarget(bean);
+                factory.addInterface(DeviceService.class);
+                factory.addAdvice(interceptor.getObject());
+                return factory.getProxy(DeviceService.class.getClassLoader());
+            }
+        };
+    }
+}
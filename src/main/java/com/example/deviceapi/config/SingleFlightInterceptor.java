@@ -0,0 +1,166 @@
+package com.example.deviceapi.config;
+
+import com.example.deviceapi.service.DevicesArchivedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Shares one invocation of the coalesced operations between the concurrent callers passing the same arguments.
+ *
+ * A caller only joins an invocation started since the last write completed. Writes are the methods of the
+ * intercepted object named as such, which complete once their transaction, or the enclosing one they joined, has
+ * committed, and the archival of devices, recorded once each archived batch has committed. Each such write that
+ * completed before a caller arrived was therefore committed before the shared invocation started, so the caller sees
+ * it exactly as if it had run its own invocation. Writes the interceptor is not told about, such as a method missing
+ * from the write names or a change made by another instance, are only seen by the invocations started after them, as
+ * with any read racing a write. Callers requiring {@link ReadYourWrites} only join each other, so that they never
+ * receive a result read from a replica.
+ *
+ * Callers beyond the waiter limit of an invocation run their own, so that one slow query cannot hold an unbounded
+ * number of requests. Callers are counted in the {@value #METRIC} counter by {@code operation} and {@code role}:
+ * {@code leader} ran the invocation, {@code shared} received the result of another caller's, {@code overflow}
+ * found it full.
+ */
+public class SingleFlightInterceptor implements MethodInterceptor {
+
+    /**
+     * Name of the counter.
+     */
+    public static final String METRIC = "device.single_flight";
+
+    private final Map<String, Counters> operations;
+    private final Set<String> writeOperations;
+    private final int maxWaiters;
+
+    private final AtomicLong writes = new AtomicLong();
+    private final ConcurrentMap<Key, Flight> flights = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new interceptor.
+     *
+     * @param operations      the names of the methods to coalesce, which must be read-only
+     * @param writeOperations the names of the methods changing what the coalesced methods return
+     * @param maxWaiters      the maximum number of callers waiting for one invocation
+     * @param registry        the registry of the counters
+     */
+    public SingleFlightInterceptor(Set<String> operations, Set<String> writeOperations, int maxWaiters,
+                                   MeterRegistry registry) {
+        if (operations.stream().anyMatch(writeOperations::contains)) {
+            throw new IllegalArgumentException("Write operations cannot be coalesced: " + operations);
+        }
+        this.operations = operations.stream().collect(Collectors.toUnmodifiableMap(Function.identity(),
+                operation -> new Counters(counter(registry, operation, "leader"),
+                        counter(registry, operation, "shared"), counter(registry, operation, "overflow"))));
+        this.writeOperations = Set.copyOf(writeOperations);
+        this.maxWaiters = maxWaiters;
+    }
+
+    /**
+     * Records a write made outside the intercepted object, so that later callers no longer join the invocations
+     * started before it.
+     */
+    public void writeCompleted() {
+        writes.incrementAndGet();
+    }
+
+    /**
+     * Records the archival of devices, which drops them from the default listings, once it has committed.
+     *
+     * @param event the archived devices
+     */
+    @TransactionalEventListener
+    public void onDevicesArchived(DevicesArchivedEvent event) {
+        writeCompleted();
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        String operation = invocation.getMethod().getName();
+        if (writeOperations.contains(operation)) {
+            try {
+                return invocation.proceed();
+            } finally {
+                if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                    // Joined an enclosing transaction, which has yet to commit the write
+                    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public void afterCompletion(int status) {
+                            writeCompleted();
+                        }
+                    });
+                } else {
+                    writeCompleted();
+                }
+            }
+        }
+        Counters counters = operations.get(operation);
+        if (counters == null) {
+            return invocation.proceed();
+        }
+
+        Key key = new Key(operation, Arrays.asList(invocation.getArguments()), writes.get(),
+                ReadYourWrites.isRequired());
+        Flight flight = new Flight();
+        Flight running = flights.putIfAbsent(key, flight);
+        if (running == null) {
+            counters.leader().increment();
+            try {
+                Object result = invocation.proceed();
+                flight.result.complete(result);
+                return result;
+            } catch (Throwable throwable) {
+                flight.result.completeExceptionally(throwable);
+                throw throwable;
+            } finally {
+                flights.remove(key, flight);
+            }
+        }
+        if (running.waiters.incrementAndGet() > maxWaiters) {
+            counters.overflow().increment();
+            return invocation.proceed();
+        }
+        counters.shared().increment();
+        try {
+            return running.result.join();
+        } catch (CompletionException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static Counter counter(MeterRegistry registry, String operation, String role) {
+        return Counter.builder(METRIC)
+                .tag("operation", operation)
+                .tag("role", role)
+                .register(registry);
+    }
+
+    private record Key(String operation, List<Object> arguments, long writes, boolean primary) {
+    }
+
+    private record Counters(Counter leader, Counter shared, Counter overflow) {
+    }
+
+    private static final class Flight {
+
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private final AtomicInteger waiters = new AtomicInteger();
+    }
+}
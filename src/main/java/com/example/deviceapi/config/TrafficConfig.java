@@ -0,0 +1,90 @@
+package com.example.deviceapi.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+/**
+ * Configuration protecting the API under overload: per-client rate limiting ({@code device-api.rate-limit.*})
+ * ahead of adaptive load shedding ({@code device-api.load-shedding.*}).
+ *
+ * Both only apply to {@code /api/*}.
+ */
+@Configuration
+@Profile("!reactive")
+public class TrafficConfig {
+
+    private static final String API_PATTERN = "/api/*";
+
+    /**
+     * Rate limits clients.
+     *
+     * @param requestsPerSecond the sustained request rate of a client
+     * @param burst             the number of requests a client may send at once
+     * @param maxClients        the number of client buckets kept
+     * @param exceptionResolver resolves rejections into problem responses
+     * @return the filter registration
+     */
+    @Bean
+    @ConditionalOnProperty(name = "device-api.rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(
+            @Value("${device-api.rate-limit.requests-per-second}") double requestsPerSecond,
+            @Value("${device-api.rate-limit.burst}") int burst,
+            @Value("${device-api.rate-limit.max-clients}") long maxClients,
+            @Qualifier("handlerExceptionResolver") HandlerExceptionResolver exceptionResolver) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(
+                new RateLimitFilter(requestsPerSecond, burst, maxClients, exceptionResolver));
+        registration.addUrlPatterns(API_PATTERN);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    /**
+     * The concurrency limit of the API.
+     *
+     * @param initialLimit the initial limit
+     * @param minLimit     the lowest limit
+     * @param maxLimit     the highest limit
+     * @param registry     the meter registry
+     * @return the limiter
+     */
+    @Bean
+    @ConditionalOnProperty(name = "device-api.load-shedding.enabled", havingValue = "true", matchIfMissing = true)
+    public AdaptiveConcurrencyLimiter concurrencyLimiter(
+            @Value("${device-api.load-shedding.initial-limit}") int initialLimit,
+            @Value("${device-api.load-shedding.min-limit}") int minLimit,
+            @Value("${device-api.load-shedding.max-limit}") int maxLimit,
+            MeterRegistry registry) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit);
+        Gauge.builder("device.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit).register(registry);
+        Gauge.builder("device.concurrency.in_flight", limiter, AdaptiveConcurrencyLimiter::getInFlight).register(registry);
+        return limiter;
+    }
+
+    /**
+     * Sheds requests beyond the concurrency limit.
+     *
+     * @param limiter           the concurrency limiter
+     * @param exceptionResolver resolves rejections into problem responses
+     * @return the filter registration
+     */
+    @Bean
+    @ConditionalOnProperty(name = "device-api.load-shedding.enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<LoadSheddingFilter> loadSheddingFilter(
+            AdaptiveConcurrencyLimiter limiter,
+            @Qualifier("handlerExceptionResolver") HandlerExceptionResolver exceptionResolver) {
+        FilterRegistrationBean<LoadSheddingFilter> registration = new FilterRegistrationBean<>(
+                new LoadSheddingFilter(limiter, exceptionResolver));
+        registration.addUrlPatterns(API_PATTERN);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        return registration;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.deviceapi.config;
+
+import com.example.deviceapi.service.DeviceService;
+import com.example.deviceapi.service.IdempotencyStore;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.NameMatchMethodPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcutAdvisor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+
+/**
+ * Configuration for serving requests on virtual threads ({@code spring.threads.virtual.enabled=true}).
+ *
+ * Virtual threads remove the Tomcat thread limit, so the device service is guarded by a concurrency limiter
+ * sized to the connection pool instead. The limiter wraps the transactional proxy: a connection is taken when
+ * the transaction begins, so a permit is held for exactly as long as a connection, once per service call.
+ *
+ * The pool is split three ways. {@code device-api.database.reserved-connections} are left to the scheduled jobs,
+ * which run on virtual threads of their own in this mode and are not limited. {@code device-api.database.max-exports}
+ * go to the NDJSON export, which holds its connection for the whole export and so has a limiter of its own. The
+ * rest are shared by the other service calls and the database idempotency store.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    /**
+     * Name of the service method streaming every device.
+     */
+    static final String EXPORT_OPERATION = "exportAll";
+
+    /**
+     * Wraps the device service and the database idempotency store in {@link ConcurrencyLimitInterceptor}s.
+     *
+     * @param poolSize            the size of the connection pool
+     * @param reservedConnections the connections left to the scheduled jobs
+     * @param maxExports          the maximum number of concurrent exports
+     * @param acquireTimeout      how long a call waits for a slot
+     * @param idempotencyStore    the idempotency store in use
+     * @return the bean post processor
+     */
+    @Bean
+    public static BeanPostProcessor serviceConcurrencyLimiter(
+            @Value("${spring.datasource.hikari.maximum-pool-size}") int poolSize,
+            @Value("${device-api.database.reserved-connections}") int reservedConnections,
+            @Value("${device-api.database.max-exports}") int maxExports,
+            @Value("${device-api.database.acquire-timeout}") Duration acquireTimeout,
+            @Value("${device-api.idempotency.store}") String idempotencyStore) {
+        int maxConcurrency = poolSize - reservedConnections - maxExports;
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("The pool of " + poolSize + " connections leaves none to requests after "
+                    + reservedConnections + " reserved connections and " + maxExports + " exports");
+        }
+        return new ServiceConcurrencyLimiter(new ConcurrencyLimitInterceptor(maxConcurrency, acquireTimeout),
+                new ConcurrencyLimitInterceptor(maxExports, acquireTimeout), "database".equals(idempotencyStore));
+    }
+
+    /**
+     * Ordered so that it runs after the transaction proxy is created but before the unordered post processors
+     * adding metrics and request coalescing, which therefore wrap it: coalesced callers share one permit.
+     */
+    private static final class ServiceConcurrencyLimiter implements BeanPostProcessor, Ordered {
+
+        private final ConcurrencyLimitInterceptor limiter;
+        private final ConcurrencyLimitInterceptor exportLimiter;
+        private final boolean limitIdempotencyStore;
+
+        private ServiceConcurrencyLimiter(ConcurrencyLimitInterceptor limiter, ConcurrencyLimitInterceptor exportLimiter,
+                                          boolean limitIdempotencyStore) {
+            this.limiter = limiter;
+            this.exportLimiter = exportLimiter;
+            this.limitIdempotencyStore = limitIdempotencyStore;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof DeviceService) {
+                ProxyFactory factory = new ProxyFactory();
+                factory.setTarget(bean);
+                factory.addInterface(DeviceService.class);
+                NameMatchMethodPointcutAdvisor exports = new NameMatchMethodPointcutAdvisor(exportLimiter);
+                exports.setMappedName(EXPORT_OPERATION);
+                factory.addAdvisor(exports);
+                factory.addAdvisor(new StaticMethodMatcherPointcutAdvisor(limiter) {
+                    @Override
+                    public boolean matches(Method method, Class<?> targetClass) {
+                        return !EXPORT_OPERATION.equals(method.getName());
+                    }
+                });
+                return factory.getProxy(DeviceService.class.getClassLoader());
+            }
+            if (limitIdempotencyStore && bean instanceof IdempotencyStore) {
+                if (bean instanceof Advised advised) {
+                    // Outside the transaction advice, so that the permit is taken before the connection
+                    advised.addAdvice(0, limiter);
+                    return bean;
+                }
+                // Proxies the class, so that its scheduled purge stays invocable and is limited too.
+                ProxyFactory factory = new ProxyFactory(bean);
+                factory.setProxyTargetClass(true);
+                factory.addAdvice(limiter);
+                return factory.getProxy(bean.getClass().getClassLoader());
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.deviceapi.controller;
+
+import com.example.deviceapi.dto.DeviceBatchRequestDTO;
+import com.example.deviceapi.dto.DeviceBatchResponseDTO;
+import com.example.deviceapi.service.DeviceService;
+import com.example.deviceapi.service.IdempotencyService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.zalando.problem.Problem;
+
+/**
+ * REST controller for bulk device changes.
+ *
+ * Mapped outside of {@link DeviceController} because the {@code :batch} custom method is appended to the
+ * collection path itself, which a class-level prefix would separate with a slash.
+ */
+@RestController
+@Profile("!reactive")
+@AllArgsConstructor
+@Tag(name = "Devices", description = "Operations related to device management")
+public class DeviceBatchController {
+
+    private DeviceService deviceService;
+    private IdempotencyService idempotency;
+
+    /**
+     * Batch device response dto.
+     *
+     * @param dto            the dto
+     * @param idempotencyKey the idempotency key
+     * @return the device batch response dto
+     */
+    @PostMapping("/api/v1/devices:batch")
+    @Operation(
+            summary = "Create, update and delete devices in bulk",
+            description = """
+                    Applies the creates, then the full updates, then the deletes of the request in one transaction.
+                    Every item follows the rules of the single-device endpoints: devices in `IN_USE` state cannot
+                    be deleted nor have their name or brand changed. Items breaking a rule are reported with the
+                    status they would have had on their own (404, 409) and the other items are still applied.
+                    Requests repeating the `Idempotency-Key` of an earlier one return its results instead of
+                    applying the batch again.""",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Batch applied, see the per-item results",
+                            content = @Content(schema = @Schema(implementation = DeviceBatchResponseDTO.class))),
+                    @ApiResponse(responseCode = "400", description = "Validation error"),
+                    @ApiResponse(responseCode = "409", description = "Conflict - A request with the same idempotency key is in progress",
+                            content = @Content(schema = @Schema(implementation = Problem.class))),
+                    @ApiResponse(responseCode = "422", description = "Idempotency key already used with a different request",
+                            content = @Content(schema = @Schema(implementation = Problem.class)))
+            }
+    )
+    public DeviceBatchResponseDTO batch(
+            @Valid @RequestBody DeviceBatchRequestDTO dto,
+            @Parameter(description = "Key under which retries of the request return the first response") @RequestHeader(value = DeviceController.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey
+    ) {
+        return idempotency.execute(idempotencyKey, "batch", dto, DeviceBatchResponseDTO.class, () -> deviceService.batch(dto));
+    }
+}
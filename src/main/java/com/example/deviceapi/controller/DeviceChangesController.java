@@ -0,0 +1,100 @@
+package com.example.deviceapi.controller;
+
+import com.example.deviceapi.dto.DeviceChangeDTO;
+import com.example.deviceapi.entity.DeviceState;
+import com.example.deviceapi.service.impl.DeviceChangeFeed;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * REST controller for the device change feed.
+ */
+@RestController
+@Profile("!reactive")
+@AllArgsConstructor
+@RequestMapping("/api/v1/devices")
+@Tag(name = "Devices", description = "Operations related to device management")
+public class DeviceChangesController {
+
+    /**
+     * Name of the event telling that changes were missed and tracked devices should be reloaded.
+     */
+    public static final String RESYNC_EVENT = "resync";
+
+    private DeviceChangeFeed changeFeed;
+    private ObjectMapper objectMapper;
+
+    /**
+     * Streams device changes as server-sent events.
+     *
+     * @param brand       the brand to filter by
+     * @param state       the state to filter by
+     * @param lastEventId the ID of the last event received, sent by reconnecting clients
+     * @return the SSE emitter
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+            summary = "Stream device changes",
+            description = """
+                    Streams every committed create, update and delete as a server-sent event named after the change
+                    (`created`, `updated`, `deleted`) carrying the previous and new state. The `brand` and `state`
+                    filters match a change if the device had or has that brand or state. Clients reconnecting with
+                    `Last-Event-ID` get the changes they missed from a bounded replay buffer; if some are no longer
+                    in it, a `resync` event comes first. Clients that fall too far behind are disconnected and can
+                    resume the same way.""",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Change stream opened",
+                            content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+                                    schema = @Schema(implementation = DeviceChangeDTO.class)))
+            }
+    )
+    public SseEmitter changes(
+            @RequestParam(required = false) String brand,
+            @RequestParam(required = false) DeviceState state,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        // Each event must fit in one data line.
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        SseEmitter emitter = new SseEmitter();
+        Runnable cancel = changeFeed.subscribe(brand, state, lastEventId, new DeviceChangeFeed.Subscriber() {
+            @Override
+            public void onChange(DeviceChangeDTO change) throws IOException {
+                emitter.send(SseEmitter.event()
+                        .id(Long.toString(change.eventId()))
+                        .name(change.type().name().toLowerCase(Locale.ROOT))
+                        .data(writer.writeValueAsString(change)));
+            }
+
+            @Override
+            public void onGap() throws IOException {
+                emitter.send(SseEmitter.event().name(RESYNC_EVENT).data(RESYNC_EVENT));
+            }
+
+            @Override
+            public void onComplete() {
+                emitter.complete();
+            }
+        });
+        emitter.onCompletion(cancel);
+        emitter.onTimeout(cancel);
+        emitter.onError(error -> cancel.run());
+        return emitter;
+    }
+}
@@ -1,9 +1,18 @@
 package com.example.deviceapi.controller;
 
+import com.example.deviceapi.dto.DeviceDeleteResultDTO;
+import com.example.deviceapi.dto.DevicePageDTO;
 import com.example.deviceapi.dto.DeviceRequestDTO;
 import com.example.deviceapi.dto.DeviceResponseDTO;
+import com.example.deviceapi.dto.DeviceSearchDTO;
+import com.example.deviceapi.dto.DeviceStatsDTO;
 import com.example.deviceapi.entity.DeviceState;
 import com.example.deviceapi.service.DeviceService;
+import com.example.deviceapi.service.IdempotencyService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -12,7 +21,12 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -20,12 +34,20 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import org.zalando.problem.Problem;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 /**
  * REST controller for managing devices.
@@ -34,66 +56,99 @@ import java.util.List;
  * Validates input data and enforces domain rules via the service layer.
  */
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/v1/devices")
 @AllArgsConstructor
 @Tag(name = "Devices", description = "Operations related to device management")
 public class DeviceController {
 
+    /**
+     * Response header carrying the cursor of the next page.
+     */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    /**
+     * Request header making retries of a create, batch or check-out return the first response.
+     */
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private static final String DEFAULT_PAGE_SIZE = "100";
+
     private DeviceService deviceService;
+    private ObjectMapper objectMapper;
+    private IdempotencyService idempotency;
 
     /**
      * Create device response dto.
      *
-     * @param dto the dto
+     * @param dto            the dto
+     * @param idempotencyKey the idempotency key
      * @return the device response dto
      */
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     @Operation(
             summary = "Create a new device",
-            description = "Creates and returns a new device. The creation time is set automatically.",
+            description = """
+                    Creates and returns a new device. The creation time is set automatically.
+                    Requests repeating the `Idempotency-Key` of an earlier one return its device instead of
+                    creating another.""",
             responses = {
                     @ApiResponse(responseCode = "201", description = "Device created",
                             content = @Content(schema = @Schema(implementation = DeviceResponseDTO.class))),
                     @ApiResponse(responseCode = "400", description = "Validation error"),
+                    @ApiResponse(responseCode = "409", description = "Conflict - A request with the same idempotency key is in progress",
+                            content = @Content(schema = @Schema(implementation = Problem.class))),
+                    @ApiResponse(responseCode = "422", description = "Idempotency key already used with a different request",
+                            content = @Content(schema = @Schema(implementation = Problem.class)))
             }
     )
-    public DeviceResponseDTO create(@Valid @RequestBody DeviceRequestDTO dto) {
-        return deviceService.create(dto);
+    public DeviceResponseDTO create(
+            @Valid @RequestBody DeviceRequestDTO dto,
+            @Parameter(description = "Key under which retries of the request return the first response") @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey
+    ) {
+        return idempotency.execute(idempotencyKey, "create", dto, DeviceResponseDTO.class, () -> deviceService.create(dto));
     }
 
     /**
      * Update device response dto.
      *
-     * @param id  the id
-     * @param dto the dto
+     * @param id      the id
+     * @param dto     the dto
+     * @param ifMatch the if-match header
      * @return the device response dto
      */
     @PutMapping("/{id}")
     @Operation(
             summary = "Fully update a device",
-            description = "Replaces a device entirely. Devices in IN_USE state cannot be updated.",
+            description = """
+                    Replaces a device entirely. Devices in IN_USE state cannot be updated.
+                    With an `If-Match` header the update only applies to one of its versions of the device.""",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Device updated",
                             content = @Content(schema = @Schema(implementation = DeviceResponseDTO.class))),
                     @ApiResponse(responseCode = "400", description = "Validation error"),
                     @ApiResponse(responseCode = "404", description = "Device not found"),
                     @ApiResponse(responseCode = "409", description = "Conflict - Device is in use and cannot be updated",
+                            content = @Content(schema = @Schema(implementation = Problem.class))),
+                    @ApiResponse(responseCode = "412", description = "Precondition Failed - Device is missing or at none of the If-Match versions",
                             content = @Content(schema = @Schema(implementation = Problem.class)))
             }
     )
-    public DeviceResponseDTO update(
+    public ResponseEntity<DeviceResponseDTO> update(
             @Parameter(description = "Device ID") @PathVariable Long id,
-            @Valid @RequestBody DeviceRequestDTO dto
+            @Valid @RequestBody DeviceRequestDTO dto,
+            @Parameter(description = "ETag of the expected device version") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) {
-        return deviceService.update(id, dto);
+        return withETag(deviceService.update(id, dto, DeviceETags.expectedVersions(ifMatch)));
     }
 
     /**
      * Partial update device response dto.
      *
-     * @param id  the id
-     * @param dto the dto
+     * @param id      the id
+     * @param dto     the dto
+     * @param ifMatch the if-match header
      * @return the device response dto
      */
     @Operation(
@@ -102,6 +157,7 @@ public class DeviceController {
                    Updates specific fields of a device. 
                    If the device is in state `IN_USE`, the `name` and `brand` cannot be changed. 
                    Attempting to change these fields while in `IN_USE` state will result in a 409 Conflict error.
+                   With an `If-Match` header the update only applies to one of its versions of the device.
                    Returns 200 and the updated device if successful.""",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Device updated successfully",
@@ -109,15 +165,101 @@ public class DeviceController {
                     @ApiResponse(responseCode = "404", description = "Device not found",
                             content = @Content),
                     @ApiResponse(responseCode = "409", description = "Conflict - Attempt to change restricted fields while device is IN_USE",
+                            content = @Content(schema = @Schema(implementation = Problem.class))),
+                    @ApiResponse(responseCode = "412", description = "Precondition Failed - Device is missing or at none of the If-Match versions",
                             content = @Content(schema = @Schema(implementation = Problem.class)))
             }
     )
     @PatchMapping("/{id}")
-    public DeviceResponseDTO partialUpdate(
+    public ResponseEntity<DeviceResponseDTO> partialUpdate(
             @Parameter(description = "Device ID") @PathVariable Long id,
-            @RequestBody DeviceRequestDTO dto
+            @RequestBody DeviceRequestDTO dto,
+            @Parameter(description = "ETag of the expected device version") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) {
-        return deviceService.partialUpdate(id, dto);
+        return withETag(deviceService.partialUpdate(id, dto, DeviceETags.expectedVersions(ifMatch)));
+    }
+
+    /**
+     * Checks out a device.
+     *
+     * @param id             the id
+     * @param idempotencyKey the idempotency key
+     * @return the checked out device
+     */
+    @PostMapping("/{id}/checkout")
+    @Operation(
+            summary = "Check out a device",
+            description = "Moves an `AVAILABLE` device to `IN_USE` in one atomic step, without reading it first.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Device checked out",
+                            content = @Content(schema = @Schema(implementation = DeviceResponseDTO.class))),
+                    @ApiResponse(responseCode = "404", description = "Device not found"),
+                    @ApiResponse(responseCode = "409", description = "Conflict - Device is not available",
+                            content = @Content(schema = @Schema(implementation = Problem.class)))
+            }
+    )
+    public ResponseEntity<DeviceResponseDTO> checkout(
+            @Parameter(description = "Device ID") @PathVariable Long id,
+            @Parameter(description = "Key under which retries of the request return the first response") @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey
+    ) {
+        return withETag(idempotency.execute(idempotencyKey, "checkout", id, DeviceResponseDTO.class,
+                () -> deviceService.checkout(id)));
+    }
+
+    /**
+     * Checks in a device.
+     *
+     * @param id             the id
+     * @param idempotencyKey the idempotency key
+     * @return the checked in device
+     */
+    @PostMapping("/{id}/checkin")
+    @Operation(
+            summary = "Check in a device",
+            description = "Moves an `IN_USE` device back to `AVAILABLE` in one atomic step, without reading it first.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Device checked in",
+                            content = @Content(schema = @Schema(implementation = DeviceResponseDTO.class))),
+                    @ApiResponse(responseCode = "404", description = "Device not found"),
+                    @ApiResponse(responseCode = "409", description = "Conflict - Device is not in use",
+                            content = @Content(schema = @Schema(implementation = Problem.class)))
+            }
+    )
+    public ResponseEntity<DeviceResponseDTO> checkin(
+            @Parameter(description = "Device ID") @PathVariable Long id,
+            @Parameter(description = "Key under which retries of the request return the first response") @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey
+    ) {
+        return withETag(idempotency.execute(idempotencyKey, "checkin", id, DeviceResponseDTO.class,
+                () -> deviceService.checkin(id)));
+    }
+
+    /**
+     * Checks out any available device of a brand.
+     *
+     * @param brand          the brand
+     * @param idempotencyKey the idempotency key
+     * @return the checked out device
+     */
+    @PostMapping("/checkout")
+    @Operation(
+            summary = "Check out any available device of a brand",
+            description = """
+                    Claims the available device of the brand with the lowest ID and moves it to `IN_USE`.
+                    Devices being claimed by concurrent requests are skipped instead of waited for,
+                    so concurrent claims never block each other.""",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Device checked out",
+                            content = @Content(schema = @Schema(implementation = DeviceResponseDTO.class))),
+                    @ApiResponse(responseCode = "409", description = "Conflict - No device of the brand is available",
+                            content = @Content(schema = @Schema(implementation = Problem.class)))
+            }
+    )
+    public ResponseEntity<DeviceResponseDTO> checkoutAny(
+            @Parameter(description = "Brand of the device to check out") @RequestParam String brand,
+            @Parameter(description = "Key under which retries of the request return the first response") @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey
+    ) {
+        return withETag(idempotency.execute(idempotencyKey, "checkout-any", brand, DeviceResponseDTO.class,
+                () -> deviceService.checkoutAny(brand)));
     }
 
     /**
@@ -129,83 +271,243 @@ public class DeviceController {
     @GetMapping("/{id}")
     @Operation(
             summary = "Get a device by ID",
-            description = "Retrieves a specific device based on the given ID",
+            description = """
+                    Retrieves a specific device based on the given ID, with its version as `ETag`.
+                    When `If-None-Match` holds the current ETag, 304 Not Modified is returned without a body.""",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Device retrieved successfully",
                             content = @Content(schema = @Schema(implementation = DeviceResponseDTO.class))),
+                    @ApiResponse(responseCode = "304", description = "Device not modified since the If-None-Match version"),
                     @ApiResponse(responseCode = "404", description = "Device not found")
             }
     )
-    public DeviceResponseDTO getById(
+    public ResponseEntity<DeviceResponseDTO> getById(
             @Parameter(description = "Device ID") @PathVariable Long id
     ) {
-        return deviceService.findById(id);
+        return withETag(deviceService.findById(id));
     }
 
     /**
      * Gets all.
      *
+     * @param after           the cursor of the page to fetch
+     * @param limit           the page size
+     * @param includeArchived whether to include the archived devices
      * @return the all
      */
     @GetMapping
     @Operation(
             summary = "List all devices",
-            description = "Returns a list of all registered devices",
+            description = """
+                    Returns a page of registered devices ordered by ID; archived devices are left out unless
+                    `includeArchived` is set.
+                    When more devices are available the `X-Next-Cursor` header carries the cursor of the next page,
+                    which is passed back as the `after` parameter.""",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Devices retrieved successfully",
+                            content = @Content(schema = @Schema(implementation = DeviceResponseDTO.class))),
+                    @ApiResponse(responseCode = "400", description = "Malformed cursor",
+                            content = @Content(schema = @Schema(implementation = Problem.class)))
+            }
+    )
+    public ResponseEntity<List<DeviceResponseDTO>> getAll(
+            @Parameter(description = "Cursor returned with the previous page") @RequestParam(required = false) String after,
+            @Parameter(description = "Page size, at most " + DeviceService.MAX_PAGE_SIZE) @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit,
+            @Parameter(description = "Whether to include the archived devices") @RequestParam(defaultValue = "false") boolean includeArchived
+    ) {
+        return toResponse(deviceService.findAll(after, limit, includeArchived), limit);
+    }
+
+    /**
+     * Exports every device as newline-delimited JSON.
+     *
+     * @return the streaming response body
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+            summary = "Export all devices",
+            description = """
+                    Streams the full device inventory ordered by ID, one compact JSON object per line.
+                    The response is written while the database is read, so it starts immediately and
+                    its memory footprint does not depend on the number of devices.""",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Devices streamed successfully",
+                            content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                                    schema = @Schema(implementation = DeviceResponseDTO.class)))
+            }
+    )
+    public ResponseEntity<StreamingResponseBody> export() {
+        ObjectWriter writer = objectMapper.writer()
+                .without(SerializationFeature.INDENT_OUTPUT)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(out).setRootValueSeparator(null);
+            deviceService.exportAll(device -> {
+                try {
+                    writer.writeValue(generator, device);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Searches devices.
+     *
+     * @param brand           the brand
+     * @param state           the state
+     * @param name            the name prefix
+     * @param createdFrom     the earliest creation time
+     * @param createdTo       the latest creation time, exclusive
+     * @param sort            the sort
+     * @param limit           the maximum number of devices
+     * @param fields          the properties to return
+     * @param includeArchived whether to include the archived devices
+     * @return the matching devices
+     */
+    @GetMapping("/search")
+    @Operation(
+            summary = "Search devices",
+            description = """
+                    Returns the devices matching all the given filters, in one database query.
+                    `sort` takes a property optionally followed by `,asc` or `,desc` (default `id`);
+                    `fields` limits the returned properties, and the columns read, to the listed ones.""",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Devices retrieved successfully"),
+                    @ApiResponse(responseCode = "400", description = "Unknown sort or field property",
+                            content = @Content(schema = @Schema(implementation = Problem.class)))
+            }
+    )
+    public List<Map<String, Object>> search(
+            @Parameter(description = "Brand of the devices") @RequestParam(required = false) String brand,
+            @Parameter(description = "State of the devices") @RequestParam(required = false) DeviceState state,
+            @Parameter(description = "Beginning of the device name") @RequestParam(required = false) String name,
+            @Parameter(description = "Earliest creation time, inclusive") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @Parameter(description = "Latest creation time, exclusive") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+            @Parameter(description = "Sort property and direction, e.g. creationTime,desc") @RequestParam(defaultValue = "id") String sort,
+            @Parameter(description = "Maximum number of devices, at most " + DeviceService.MAX_PAGE_SIZE) @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit,
+            @Parameter(description = "Device properties to return, all by default") @RequestParam(required = false) List<String> fields,
+            @Parameter(description = "Whether to include the archived devices") @RequestParam(defaultValue = "false") boolean includeArchived
+    ) {
+        return deviceService.search(new DeviceSearchDTO(brand, state, name, createdFrom, createdTo, sort, limit, fields,
+                includeArchived));
+    }
+
+    /**
+     * Searches devices by name.
+     *
+     * @param q     the name, or part of it
+     * @param limit the maximum number of devices
+     * @return the best matching devices
+     */
+    @GetMapping("/search/name")
+    @Operation(
+            summary = "Search devices by name",
+            description = """
+                    Returns the devices whose name best matches `q`, best match first. Names are compared by trigrams,
+                    so partial and misspelled names match too.""",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Devices retrieved successfully",
                             content = @Content(schema = @Schema(implementation = DeviceResponseDTO.class)))
             }
     )
-    public List<DeviceResponseDTO> getAll() {
-        return deviceService.findAll();
+    public List<DeviceResponseDTO> searchByName(
+            @Parameter(description = "Name, or part of it") @RequestParam String q,
+            @Parameter(description = "Maximum number of devices, at most " + DeviceService.MAX_PAGE_SIZE) @RequestParam(defaultValue = "10") int limit
+    ) {
+        return deviceService.searchByName(q, limit);
+    }
+
+    /**
+     * Gets the device counts.
+     *
+     * @return the device counts
+     */
+    @GetMapping("/stats")
+    @Operation(
+            summary = "Get device counts",
+            description = """
+                    Returns the number of devices per state, per brand and per brand and state.
+                    Counts are served from memory and reconciled with the database periodically,
+                    so they may briefly lag behind concurrent writes.""",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Counts retrieved successfully",
+                            content = @Content(schema = @Schema(implementation = DeviceStatsDTO.class)))
+            }
+    )
+    public DeviceStatsDTO stats() {
+        return deviceService.stats();
     }
 
     /**
      * Gets by brand.
      *
-     * @param brand the brand
+     * @param brand           the brand
+     * @param after           the cursor of the page to fetch
+     * @param limit           the page size
+     * @param includeArchived whether to include the archived devices
      * @return the by brand
      */
     @GetMapping("/brand/{brand}")
     @Operation(
             summary = "Get devices by brand",
-            description = "Retrieves all devices that match the given brand name",
+            description = "Retrieves a page of devices that match the given brand name, paginated like the device list",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Devices retrieved successfully",
-                            content = @Content(schema = @Schema(implementation = DeviceResponseDTO.class)))
+                            content = @Content(schema = @Schema(implementation = DeviceResponseDTO.class))),
+                    @ApiResponse(responseCode = "400", description = "Malformed cursor",
+                            content = @Content(schema = @Schema(implementation = Problem.class)))
             }
     )
-    public List<DeviceResponseDTO> getByBrand(
-            @Parameter(description = "Device brand") @PathVariable String brand
+    public ResponseEntity<List<DeviceResponseDTO>> getByBrand(
+            @Parameter(description = "Device brand") @PathVariable String brand,
+            @Parameter(description = "Cursor returned with the previous page") @RequestParam(required = false) String after,
+            @Parameter(description = "Page size, at most " + DeviceService.MAX_PAGE_SIZE) @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit,
+            @Parameter(description = "Whether to include the archived devices") @RequestParam(defaultValue = "false") boolean includeArchived
     ) {
-        return deviceService.findByBrand(brand);
+        return toResponse(deviceService.findByBrand(brand, after, limit, includeArchived), limit);
     }
 
     /**
      * Gets by state.
      *
-     * @param state the state
+     * @param state           the state
+     * @param after           the cursor of the page to fetch
+     * @param limit           the page size
+     * @param includeArchived whether to include the archived devices
      * @return the by state
      */
     @GetMapping("/state/{state}")
     @Operation(
             summary = "Get devices by state",
-            description = "Retrieves all devices with the specified state",
+            description = "Retrieves a page of devices with the specified state, paginated like the device list",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Devices retrieved successfully",
-                            content = @Content(schema = @Schema(implementation = DeviceResponseDTO.class)))
+                            content = @Content(schema = @Schema(implementation = DeviceResponseDTO.class))),
+                    @ApiResponse(responseCode = "400", description = "Malformed cursor",
+                            content = @Content(schema = @Schema(implementation = Problem.class)))
             }
     )
-    public List<DeviceResponseDTO> getByState(
-            @Parameter(description = "Device state (e.g., ACTIVE, INACTIVE)") @PathVariable DeviceState state
+    public ResponseEntity<List<DeviceResponseDTO>> getByState(
+            @Parameter(description = "Device state (e.g., ACTIVE, INACTIVE)") @PathVariable DeviceState state,
+            @Parameter(description = "Cursor returned with the previous page") @RequestParam(required = false) String after,
+            @Parameter(description = "Page size, at most " + DeviceService.MAX_PAGE_SIZE) @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit,
+            @Parameter(description = "Whether to include the archived devices") @RequestParam(defaultValue = "false") boolean includeArchived
     ) {
-        return deviceService.findByState(state);
+        return toResponse(deviceService.findByState(state, after, limit, includeArchived), limit);
     }
 
     /**
      * Delete.
      *
-     * @param id the id
+     * @param id      the id
+     * @param ifMatch the if-match header
      */
     @Operation(
             summary = "Delete a device",
@@ -213,20 +515,76 @@ public class DeviceController {
         Deletes a device by its ID.
 
         Devices in state `IN_USE` cannot be deleted and will return a 409 Conflict error.
+        With an `If-Match` header only one of its versions of the device is deleted.
         Returns 204 No Content if deletion is successful.
         """,
             responses = {
                     @ApiResponse(responseCode = "204", description = "Device deleted successfully"),
                     @ApiResponse(responseCode = "404", description = "Device not found", content = @Content),
                     @ApiResponse(responseCode = "409", description = "Conflict - Device in use cannot be deleted",
+                            content = @Content(schema = @Schema(implementation = Problem.class))),
+                    @ApiResponse(responseCode = "412", description = "Precondition Failed - Device is missing or at none of the If-Match versions",
                             content = @Content(schema = @Schema(implementation = Problem.class)))
             }
     )
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void delete(
-            @Parameter(description = "Device ID") @PathVariable Long id
+            @Parameter(description = "Device ID") @PathVariable Long id,
+            @Parameter(description = "ETag of the expected device version") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        deviceService.delete(id, DeviceETags.expectedVersions(ifMatch));
+    }
+
+    /**
+     * Deletes the devices in a state created before a given time.
+     *
+     * @param state         the state
+     * @param createdBefore the latest creation time, exclusive
+     * @return the number of deleted devices
+     */
+    @Operation(
+            summary = "Delete devices",
+            description = """
+                    Deletes, in batches each committed on its own, the devices in the given state created before
+                    `createdBefore`. Devices in state `IN_USE` are never deleted.
+                    Deleted devices disappear from the API as their batch commits and are removed from the database later.""",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Devices deleted successfully",
+                            content = @Content(schema = @Schema(implementation = DeviceDeleteResultDTO.class)))
+            }
+    )
+    @DeleteMapping
+    public DeviceDeleteResultDTO deleteAll(
+            @Parameter(description = "State of the devices") @RequestParam DeviceState state,
+            @Parameter(description = "Latest creation time, exclusive") @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdBefore
     ) {
-        deviceService.delete(id);
+        return new DeviceDeleteResultDTO(deviceService.deleteAll(state, createdBefore));
+    }
+
+    /**
+     * Returns the device with its version as {@code ETag}; for GET requests Spring answers a matching
+     * {@code If-None-Match} with 304 from this header.
+     */
+    private static ResponseEntity<DeviceResponseDTO> withETag(DeviceResponseDTO device) {
+        return ResponseEntity.ok().eTag(DeviceETags.of(device)).body(device);
+    }
+
+    /**
+     * Exposes the next cursor of a page as the {@code X-Next-Cursor} header and an RFC 8288 {@code Link},
+     * keeping the body a plain JSON array.
+     */
+    private static ResponseEntity<List<DeviceResponseDTO>> toResponse(DevicePageDTO page, int limit) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("after", page.nextCursor())
+                    .replaceQueryParam("limit", limit)
+                    .toUriString();
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor())
+                    .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return response.body(page.items());
     }
 }
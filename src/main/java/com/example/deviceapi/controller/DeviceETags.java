@@ -0,0 +1,64 @@
+package com.example.deviceapi.controller;
+
+import com.example.deviceapi.dto.DeviceResponseDTO;
+import com.example.deviceapi.exception.DeviceVersionMismatchException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Maps device versions to strong entity tags and back.
+ */
+final class DeviceETags {
+
+    private static final Pattern ENTITY_TAG = Pattern.compile("(W/)?\"([^\"]*)\"");
+
+    private DeviceETags() {
+    }
+
+    /**
+     * Builds the entity tag of a device.
+     *
+     * @param device the device
+     * @return the quoted entity tag
+     */
+    static String of(DeviceResponseDTO device) {
+        return "\"" + device.version() + "\"";
+    }
+
+    /**
+     * Reads the versions accepted by an {@code If-Match} header, a list of entity tags of which any may match.
+     *
+     * Weak tags and tags that are not device versions never match, as {@code If-Match} compares tags strongly.
+     *
+     * @param ifMatch the header value, may be {@code null}
+     * @return the accepted versions, empty for {@code *}, which any existing device matches, or {@code null}
+     *         without a header
+     * @throws DeviceVersionMismatchException if no tag of the header can match a device version
+     */
+    static List<Long> expectedVersions(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return null;
+        }
+        if (ifMatch.trim().equals("*")) {
+            return List.of();
+        }
+        List<Long> versions = new ArrayList<>();
+        Matcher tag = ENTITY_TAG.matcher(ifMatch);
+        while (tag.find()) {
+            if (tag.group(1) == null) {
+                try {
+                    versions.add(Long.valueOf(tag.group(2)));
+                } catch (NumberFormatException e) {
+                    // Not a device version, cannot match
+                }
+            }
+        }
+        if (versions.isEmpty()) {
+            throw new DeviceVersionMismatchException();
+        }
+        return versions;
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.deviceapi.controller;
+
+import com.example.deviceapi.dto.DevicePageDTO;
+import com.example.deviceapi.dto.DeviceRequestDTO;
+import com.example.deviceapi.dto.DeviceResponseDTO;
+import com.example.deviceapi.entity.DeviceState;
+import com.example.deviceapi.service.ReactiveDeviceService;
+import jakarta.validation.Valid;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * WebFlux controller for managing devices, used by the reactive profile.
+ *
+ * Serves the same {@code /api/v1/devices} contract as {@link DeviceController} on the event loop.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/v1/devices")
+@AllArgsConstructor
+public class ReactiveDeviceController {
+
+    private static final String DEFAULT_PAGE_SIZE = "100";
+
+    private ReactiveDeviceService deviceService;
+
+    /**
+     * Create device response dto.
+     *
+     * @param dto the dto
+     * @return the device response dto
+     */
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<DeviceResponseDTO> create(@Valid @RequestBody DeviceRequestDTO dto) {
+        return deviceService.create(dto);
+    }
+
+    /**
+     * Update device response dto.
+     *
+     * @param id  the id
+     * @param dto the dto
+     * @return the device response dto
+     */
+    @PutMapping("/{id}")
+    public Mono<DeviceResponseDTO> update(@PathVariable Long id, @Valid @RequestBody DeviceRequestDTO dto) {
+        return deviceService.update(id, dto);
+    }
+
+    /**
+     * Partial update device response dto.
+     *
+     * @param id  the id
+     * @param dto the dto
+     * @return the device response dto
+     */
+    @PatchMapping("/{id}")
+    public Mono<DeviceResponseDTO> partialUpdate(@PathVariable Long id, @RequestBody DeviceRequestDTO dto) {
+        return deviceService.partialUpdate(id, dto);
+    }
+
+    /**
+     * Gets by id.
+     *
+     * @param id the id
+     * @return the by id
+     */
+    @GetMapping("/{id}")
+    public Mono<DeviceResponseDTO> getById(@PathVariable Long id) {
+        return deviceService.findById(id);
+    }
+
+    /**
+     * Gets all.
+     *
+     * @param after   the cursor of the page to fetch
+     * @param limit   the page size
+     * @param request the request
+     * @return the all
+     */
+    @GetMapping
+    public Mono<ResponseEntity<List<DeviceResponseDTO>>> getAll(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit,
+            ServerHttpRequest request
+    ) {
+        return deviceService.findAll(after, limit).map(page -> toResponse(page, limit, request));
+    }
+
+    /**
+     * Exports every device as newline-delimited JSON.
+     *
+     * @return the devices
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<DeviceResponseDTO> export() {
+        return deviceService.exportAll();
+    }
+
+    /**
+     * Gets by brand.
+     *
+     * @param brand   the brand
+     * @param after   the cursor of the page to fetch
+     * @param limit   the page size
+     * @param request the request
+     * @return the by brand
+     */
+    @GetMapping("/brand/{brand}")
+    public Mono<ResponseEntity<List<DeviceResponseDTO>>> getByBrand(
+            @PathVariable String brand,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit,
+            ServerHttpRequest request
+    ) {
+        return deviceService.findByBrand(brand, after, limit).map(page -> toResponse(page, limit, request));
+    }
+
+    /**
+     * Gets by state.
+     *
+     * @param state   the state
+     * @param after   the cursor of the page to fetch
+     * @param limit   the page size
+     * @param request the request
+     * @return the by state
+     */
+    @GetMapping("/state/{state}")
+    public Mono<ResponseEntity<List<DeviceResponseDTO>>> getByState(
+            @PathVariable DeviceState state,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit,
+            ServerHttpRequest request
+    ) {
+        return deviceService.findByState(state, after, limit).map(page -> toResponse(page, limit, request));
+    }
+
+    /**
+     * Delete.
+     *
+     * @param id the id
+     * @return completion once deleted
+     */
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> delete(@PathVariable Long id) {
+        return deviceService.delete(id);
+    }
+
+    /**
+     * Same headers as {@link DeviceController}: {@code X-Next-Cursor} and a {@code Link} to the next page.
+     */
+    private static ResponseEntity<List<DeviceResponseDTO>> toResponse(DevicePageDTO page, int limit, ServerHttpRequest request) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            String next = UriComponentsBuilder.fromUri(request.getURI())
+                    .replaceQueryParam("after", page.nextCursor())
+                    .replaceQueryParam("limit", limit)
+                    .toUriString();
+            response.header(DeviceController.NEXT_CURSOR_HEADER, page.nextCursor())
+                    .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return response.body(page.items());
+    }
+}
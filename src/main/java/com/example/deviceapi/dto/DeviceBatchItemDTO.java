@@ -0,0 +1,17 @@
+
+package com.example.deviceapi.dto;
+
+/**
+ * DTO for the outcome of a single item of a batch.
+ *
+ * @param id     the device ID, {@code null} for a failed create
+ * @param status the HTTP status the item would have had as a single request
+ * @param device the resulting device, {@code null} for deletes and failures
+ * @param detail the reason of a failure, {@code null} on success
+ */
+public record DeviceBatchItemDTO(
+    Long id,
+    int status,
+    DeviceResponseDTO device,
+    String detail
+) {}
@@ -0,0 +1,33 @@
+
+package com.example.deviceapi.dto;
+
+import com.example.deviceapi.service.DeviceService;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * DTO for applying many device changes in one request.
+ *
+ * Missing lists are treated as empty. Changes are applied in order: creates, then updates, then deletes.
+ *
+ * @param create the devices to create
+ * @param update the devices to fully update
+ * @param delete the IDs of the devices to delete
+ */
+public record DeviceBatchRequestDTO(
+    @Size(max = DeviceService.MAX_BATCH_SIZE, message = "At most " + DeviceService.MAX_BATCH_SIZE + " creates per batch.")
+    List<@Valid @NotNull DeviceRequestDTO> create,
+    @Size(max = DeviceService.MAX_BATCH_SIZE, message = "At most " + DeviceService.MAX_BATCH_SIZE + " updates per batch.")
+    List<@Valid @NotNull DeviceBatchUpdateDTO> update,
+    @Size(max = DeviceService.MAX_BATCH_SIZE, message = "At most " + DeviceService.MAX_BATCH_SIZE + " deletes per batch.")
+    List<@NotNull Long> delete
+) {
+    public DeviceBatchRequestDTO {
+        create = create == null ? List.of() : create;
+        update = update == null ? List.of() : update;
+        delete = delete == null ? List.of() : delete;
+    }
+}
@@ -0,0 +1,17 @@
+
+package com.example.deviceapi.dto;
+
+import java.util.List;
+
+/**
+ * DTO for the per-item results of a batch, in the order of the request lists.
+ *
+ * @param create the results of the creates
+ * @param update the results of the updates
+ * @param delete the results of the deletes
+ */
+public record DeviceBatchResponseDTO(
+    List<DeviceBatchItemDTO> create,
+    List<DeviceBatchItemDTO> update,
+    List<DeviceBatchItemDTO> delete
+) {}
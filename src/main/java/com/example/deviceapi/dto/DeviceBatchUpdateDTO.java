@@ -0,0 +1,30 @@
+
+package com.example.deviceapi.dto;
+
+import com.example.deviceapi.entity.DeviceState;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * DTO for a single full update inside a batch.
+ */
+public record DeviceBatchUpdateDTO(
+
+    @NotNull(message = "The device ID is mandatory.")
+    Long id,
+    @NotBlank(message = "The device name is mandatory and cannot be blank.")
+    String name,
+    @NotBlank(message = "The device brand is mandatory and cannot be blank.")
+    String brand,
+    @NotNull(message = "The device state is mandatory.")
+    DeviceState state
+) {
+    /**
+     * Returns the device data of this update.
+     *
+     * @return the request DTO
+     */
+    public DeviceRequestDTO toRequest() {
+        return new DeviceRequestDTO(name, brand, state);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.deviceapi.dto;
+
+import com.example.deviceapi.entity.DeviceState;
+import com.example.deviceapi.service.DeviceChangedEvent;
+
+/**
+ * DTO for a committed device change of the change feed.
+ *
+ * @param eventId       the position of the change in the feed, sent as the SSE event ID
+ * @param type          the kind of change
+ * @param deviceId      the device ID
+ * @param brand         the brand of the device after the change, or as it was deleted
+ * @param previousBrand the brand before the change, {@code null} for a create
+ * @param previousState the state before the change, {@code null} for a create
+ * @param state         the state after the change, {@code null} for a delete
+ * @param device        the device after the change, {@code null} for a delete
+ */
+public record DeviceChangeDTO(
+    long eventId,
+    DeviceChangedEvent.Type type,
+    Long deviceId,
+    String brand,
+    String previousBrand,
+    DeviceState previousState,
+    DeviceState state,
+    DeviceResponseDTO device
+) {}
@@ -0,0 +1,10 @@
+package com.example.deviceapi.dto;
+
+/**
+ * DTO for the outcome of a bulk delete.
+ *
+ * @param deleted the number of deleted devices
+ */
+public record DeviceDeleteResultDTO(
+    int deleted
+) {}
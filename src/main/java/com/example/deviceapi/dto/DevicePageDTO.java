@@ -0,0 +1,15 @@
+
+package com.example.deviceapi.dto;
+
+import java.util.List;
+
+/**
+ * DTO for a single keyset page of devices.
+ *
+ * @param items      the devices in this page, ordered by ID
+ * @param nextCursor the opaque cursor of the next page, or {@code null} when this is the last page
+ */
+public record DevicePageDTO(
+    List<DeviceResponseDTO> items,
+    String nextCursor
+) {}
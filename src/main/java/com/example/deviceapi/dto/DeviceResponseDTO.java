@@ -13,5 +13,6 @@ public record DeviceResponseDTO(
     String name,
     String brand,
     DeviceState state,
-    LocalDateTime creationTime
+    LocalDateTime creationTime,
+    Long version
 ) {}
@@ -0,0 +1,35 @@
+package com.example.deviceapi.dto;
+
+import com.example.deviceapi.entity.DeviceState;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO for the criteria of a device search; {@code null} filters match any device.
+ *
+ * @param brand           the brand
+ * @param state           the state
+ * @param namePrefix      the beginning of the name
+ * @param createdFrom     the earliest creation time, inclusive
+ * @param createdTo       the latest creation time, exclusive
+ * @param sort            the sort property, optionally followed by {@code ,asc} or {@code ,desc}
+ * @param limit           the maximum number of devices
+ * @param fields          the device properties to return, all of them if empty
+ * @param includeArchived whether to include the archived devices
+ */
+public record DeviceSearchDTO(
+    String brand,
+    DeviceState state,
+    String namePrefix,
+    LocalDateTime createdFrom,
+    LocalDateTime createdTo,
+    String sort,
+    int limit,
+    List<String> fields,
+    boolean includeArchived
+) {
+    public DeviceSearchDTO {
+        fields = fields == null ? List.of() : fields;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.deviceapi.dto;
+
+import com.example.deviceapi.entity.DeviceState;
+
+import java.util.Map;
+
+/**
+ * DTO for the device counts of the inventory.
+ *
+ * @param total           the number of devices
+ * @param byState         the number of devices in each state
+ * @param byBrand         the number of devices of each brand
+ * @param byBrandAndState the number of devices of each brand in each state
+ */
+public record DeviceStatsDTO(
+    long total,
+    Map<DeviceState, Long> byState,
+    Map<String, Long> byBrand,
+    Map<String, Map<DeviceState, Long>> byBrandAndState
+) {}
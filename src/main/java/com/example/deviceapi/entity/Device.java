@@ -3,18 +3,35 @@ package com.example.deviceapi.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.SQLDelete;
+import org.hibernate.annotations.SQLRestriction;
+import org.springframework.data.annotation.ReadOnlyProperty;
 import java.time.LocalDateTime;
 
 /**
  * Represents a device entity stored in the database.
+ *
+ * Mapped both by JPA and, for the reactive profile, by Spring Data R2DBC, which reads its own {@code @Id}.
+ *
+ * Deletes are soft: JPA deletes only set {@code deletedAt}, JPA queries skip deleted devices,
+ * and the purger removes them for good later. Every delete increments the version, so that a write of a device
+ * loaded before it was deleted fails its version check instead of bringing the device back.
  */
 @Entity
+@SQLDelete(sql = "UPDATE device SET deleted_at = now(), version = version + 1 WHERE id = ? AND version = ?")
+@SQLRestriction("deleted_at IS NULL")
 @Getter @Setter
 @NoArgsConstructor @AllArgsConstructor @Builder
 public class Device {
 
+    /**
+     * Sequence-generated so that inserts can be batched; the pooled optimizer reserves
+     * {@code allocationSize} IDs per sequence call.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @org.springframework.data.annotation.Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "device_seq")
+    @SequenceGenerator(name = "device_seq", sequenceName = "device_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -29,4 +46,25 @@ public class Device {
 
     @Column(nullable = false, updatable = false)
     private LocalDateTime creationTime;
+
+    /**
+     * Incremented on every write; conditional requests compare it through the device ETag.
+     */
+    @Version
+    @org.springframework.data.annotation.Version
+    private Long version;
+
+    /**
+     * Partition key of the device table: set by the archiver on long-inactive devices, cleared by any update.
+     */
+    @Column(nullable = false)
+    private boolean archived;
+
+    /**
+     * When the device was deleted; {@code null} while it exists. Only written by the delete statements,
+     * never by the entity.
+     */
+    @Column(insertable = false, updatable = false)
+    @ReadOnlyProperty
+    private LocalDateTime deletedAt;
 }
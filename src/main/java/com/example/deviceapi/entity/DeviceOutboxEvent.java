@@ -0,0 +1,42 @@
+package com.example.deviceapi.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * Represents a device change waiting in the outbox to be delivered to other systems.
+ */
+@Entity
+@Table(name = "device_outbox")
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor @Builder
+public class DeviceOutboxEvent {
+
+    /**
+     * Sequence-generated like {@link Device#getId()}, so that outbox rows are batched with the device writes.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "device_outbox_seq")
+    @SequenceGenerator(name = "device_outbox_seq", sequenceName = "device_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private String type;
+
+    @Column(nullable = false)
+    private Long deviceId;
+
+    /**
+     * The change as JSON.
+     */
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(nullable = false)
+    private String payload;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,35 @@
+package com.example.deviceapi.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Represents an idempotency key shared by the instances, with the response recorded for it.
+ */
+@Entity
+@Table(name = "idempotency_key")
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor @Builder
+public class IdempotencyKey {
+
+    /**
+     * The key, prefixed with the operation it was sent to.
+     */
+    @Id
+    @Column(columnDefinition = "TEXT")
+    private String id;
+
+    @Column(nullable = false)
+    private String fingerprint;
+
+    /**
+     * The response as JSON, {@code null} while the request is running.
+     */
+    @Column(columnDefinition = "TEXT")
+    private String response;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
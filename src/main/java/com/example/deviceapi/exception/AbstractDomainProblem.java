@@ -0,0 +1,36 @@
+package com.example.deviceapi.exception;
+
+import org.zalando.problem.StatusType;
+
+import java.net.URI;
+import java.util.Map;
+
+/**
+ * Base of the problems that are normal business outcomes (not found, conflicts, rejections under load), which are
+ * thrown far more often than real errors.
+ *
+ * They do not capture a stack trace, the main cost of creating an exception and of no use for an expected outcome,
+ * and {@link ExceptionHandling} renders them on a fast path. Their type, title, status and detail must come from a
+ * small set of constants, as rendered bodies are cached by detail.
+ */
+public abstract class AbstractDomainProblem extends AbstractCustomThrowableProblem {
+
+    /**
+     * Creates an instance of {@link AbstractDomainProblem}.
+     *
+     * @param type       the exception URN
+     * @param title      the exception title
+     * @param status     the exception status code.
+     * @param detail     the exception detailed message.
+     * @param parameters the exception parameter.
+     */
+    protected AbstractDomainProblem(final URI type, final String title, final StatusType status,
+                                    final String detail, final Map<String, Object> parameters) {
+        super(type, title, status, detail, parameters);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
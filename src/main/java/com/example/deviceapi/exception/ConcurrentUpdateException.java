@@ -0,0 +1,22 @@
+package com.example.deviceapi.exception;
+
+import org.zalando.problem.Status;
+
+import java.net.URI;
+
+/**
+ * Thrown when the database aborts a write because a concurrent transaction changed the same device first,
+ * typically by moving it between the hot and archive partitions while the write waited for it.
+ */
+public class ConcurrentUpdateException extends AbstractDomainProblem {
+
+    private static final URI TYPE = URI.create("urn:device-api:problem-type:concurrent_update");
+
+    /**
+     * Creates new instance of {@code ConcurrentUpdateException}.
+     */
+    public ConcurrentUpdateException() {
+        super(TYPE, "Concurrent Update", Status.CONFLICT,
+                "The device was changed by a concurrent request, retry", null);
+    }
+}
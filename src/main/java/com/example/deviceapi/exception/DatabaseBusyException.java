@@ -0,0 +1,22 @@
+
+package com.example.deviceapi.exception;
+
+import org.zalando.problem.Status;
+
+import java.net.URI;
+
+/**
+ * Thrown when no database slot frees up in time for a device service call or an idempotency key lookup.
+ */
+public class DatabaseBusyException extends AbstractDomainProblem {
+
+    private static final URI TYPE = URI.create("urn:device-api:problem-type:database_busy");
+
+    /**
+     * Creates new instance of {@code DatabaseBusyException}.
+     */
+    public DatabaseBusyException() {
+        super(TYPE, "Database busy", Status.SERVICE_UNAVAILABLE,
+                "Too many concurrent requests are waiting for the database, retry later", null);
+    }
+}
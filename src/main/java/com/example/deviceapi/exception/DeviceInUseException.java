@@ -8,7 +8,7 @@ import java.net.URI;
 /**
  * Thrown when an operation is invalid on an in-use device.
  */
-public class DeviceInUseException extends AbstractCustomThrowableProblem {
+public class DeviceInUseException extends AbstractDomainProblem {
      private static final URI TYPE = URI.create("urn:device-api:problem-type:invalid_username");
 
     /**
@@ -8,7 +8,7 @@ import java.net.URI;
 /**
  * Thrown when a device is not found by ID.
  */
-public class DeviceNotFoundException extends AbstractCustomThrowableProblem {
+public class DeviceNotFoundException extends AbstractDomainProblem {
 
 
     private static final URI TYPE = URI.create("urn:device-api:problem-type:invalid_username");
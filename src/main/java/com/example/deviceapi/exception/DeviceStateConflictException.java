@@ -0,0 +1,22 @@
+package com.example.deviceapi.exception;
+
+import org.zalando.problem.Status;
+
+import java.net.URI;
+
+/**
+ * Thrown when a device is not in the state a state transition starts from.
+ */
+public class DeviceStateConflictException extends AbstractDomainProblem {
+
+    private static final URI TYPE = URI.create("urn:device-api:problem-type:state_conflict");
+
+    /**
+     * Creates new instance of {@code DeviceStateConflictException}.
+     *
+     * @param message the message
+     */
+    public DeviceStateConflictException(final String message) {
+        super(TYPE, "Device State Conflict", Status.CONFLICT, message, null);
+    }
+}
@@ -0,0 +1,22 @@
+
+package com.example.deviceapi.exception;
+
+import org.zalando.problem.Status;
+
+import java.net.URI;
+
+/**
+ * Thrown when a conditional write targets a version of the device that is no longer current.
+ */
+public class DeviceVersionMismatchException extends AbstractDomainProblem {
+
+    private static final URI TYPE = URI.create("urn:device-api:problem-type:version_mismatch");
+
+    /**
+     * Creates new instance of {@code DeviceVersionMismatchException}.
+     */
+    public DeviceVersionMismatchException() {
+        super(TYPE, "Precondition Failed", Status.PRECONDITION_FAILED,
+                "The device has been modified since the given version, fetch it again before retrying", null);
+    }
+}
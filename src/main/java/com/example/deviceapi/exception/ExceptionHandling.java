@@ -1,9 +1,18 @@
 package com.example.deviceapi.exception;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.http.HttpServletRequest;
+import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -14,15 +23,55 @@ import org.zalando.problem.Status;
 import org.zalando.problem.ThrowableProblem;
 import org.zalando.problem.spring.web.advice.ProblemHandling;
 
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * The type Exception handling.
+ *
+ * Every problem is counted in the {@value #PROBLEMS_METRIC} counter, tagged by problem type and status.
+ *
+ * {@link AbstractDomainProblem}s, expected outcomes returned thousands of times a second, take a fast path: their
+ * bodies are rendered once per problem type and detail, and they are only logged at debug level, one in
+ * {@value #DOMAIN_PROBLEM_LOG_SAMPLING}.
  */
 @ControllerAdvice()
+@Profile("!reactive")
 @Slf4j
+@AllArgsConstructor
 public class ExceptionHandling implements ProblemHandling {
 
+    /**
+     * Name of the counter of problems returned to clients.
+     */
+    public static final String PROBLEMS_METRIC = "device.api.problems";
+
+    /**
+     * Statuses of problems that are expected in normal operation, including rejections under overload, and
+     * therefore not logged: logging every shed request would add to the overload.
+     */
+    private static final Set<Integer> QUIET_STATUSES = Set.of(
+            Status.NOT_FOUND.getStatusCode(),
+            Status.TOO_MANY_REQUESTS.getStatusCode(),
+            Status.SERVICE_UNAVAILABLE.getStatusCode());
+
+    /**
+     * One in how many domain problems is logged.
+     */
+    static final int DOMAIN_PROBLEM_LOG_SAMPLING = 1000;
+
+    private MeterRegistry meterRegistry;
+    private ObjectMapper objectMapper;
+    private final ConcurrentMap<Class<?>, Counter> domainProblemCounters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<DomainProblemKey, byte[]> domainProblemBodies = new ConcurrentHashMap<>();
+    private final AtomicLong domainProblems = new AtomicLong();
+
     @Override
     public ResponseEntity<Problem> handleThrowable(final Throwable throwable, final NativeWebRequest request) {
         log.error(throwable.getMessage(), throwable);
@@ -32,14 +81,73 @@ public class ExceptionHandling implements ProblemHandling {
 
     @Override
     public ResponseEntity<Problem> handleProblem(ThrowableProblem problem, final NativeWebRequest request) {
+        meterRegistry.counter(PROBLEMS_METRIC,
+                "problem", problem.getClass().getSimpleName(),
+                "status", problem.getStatus() == null ? "none" : String.valueOf(problem.getStatus().getStatusCode()))
+                .increment();
 
-        if (problem.getStatus() == null || Status.NOT_FOUND.getStatusCode() != problem.getStatus().getStatusCode()) {
+        if (problem.getStatus() == null || !QUIET_STATUSES.contains(problem.getStatus().getStatusCode())) {
             log.error(problem.toString(), problem);
         }
 
         return this.create(problem, request);
     }
 
+    /**
+     * Handles a domain problem on the fast path, unless the client does not accept JSON.
+     *
+     * @param problem the problem
+     * @param request the request
+     * @return the response entity
+     */
+    @ExceptionHandler(AbstractDomainProblem.class)
+    public ResponseEntity<?> handleDomainProblem(final AbstractDomainProblem problem, final NativeWebRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept != null && !accept.contains("json") && !accept.contains("*/*")) {
+            return handleProblem(problem, request);
+        }
+        domainProblemCounters.computeIfAbsent(problem.getClass(), type -> meterRegistry.counter(PROBLEMS_METRIC,
+                "problem", type.getSimpleName(),
+                "status", String.valueOf(problem.getStatus().getStatusCode())))
+                .increment();
+
+        if (log.isDebugEnabled() && domainProblems.getAndIncrement() % DOMAIN_PROBLEM_LOG_SAMPLING == 0) {
+            log.debug("{} (logging one in {} domain problems)", problem, DOMAIN_PROBLEM_LOG_SAMPLING);
+        }
+
+        return ResponseEntity.status(problem.getStatus().getStatusCode())
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .body(domainProblemBodies.computeIfAbsent(
+                        new DomainProblemKey(problem.getClass(), problem.getDetail()), key -> render(problem)));
+    }
+
+    /**
+     * Handles a write the database aborted because of a concurrent one, such as a serialization failure on a device
+     * moved between partitions, as a {@link ConcurrentUpdateException}.
+     *
+     * @param exception the exception
+     * @param request   the request
+     * @return the response entity
+     */
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public ResponseEntity<?> handleConcurrencyFailure(final ConcurrencyFailureException exception,
+                                                      final NativeWebRequest request) {
+        log.debug("Write aborted by a concurrent one", exception);
+        return handleDomainProblem(new ConcurrentUpdateException(), request);
+    }
+
+    private byte[] render(final AbstractDomainProblem problem) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("type", problem.getType().toString());
+        body.put("title", problem.getTitle());
+        body.put("status", problem.getStatus().getStatusCode());
+        body.put("detail", problem.getDetail());
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 
     @Override
     public URI defaultConstraintViolationType() {
@@ -71,5 +179,6 @@ public class ExceptionHandling implements ProblemHandling {
                 request);
     }
 
-
+    private record DomainProblemKey(Class<?> type, String detail) {
+    }
 }
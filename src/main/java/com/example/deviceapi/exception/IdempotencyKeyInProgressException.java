@@ -0,0 +1,23 @@
+package com.example.deviceapi.exception;
+
+import org.zalando.problem.Status;
+
+import java.net.URI;
+
+/**
+ * Thrown when the request holding an idempotency key is still running on another instance.
+ */
+public class IdempotencyKeyInProgressException extends AbstractCustomThrowableProblem {
+
+    private static final URI TYPE = URI.create("urn:device-api:problem-type:idempotency_key_in_progress");
+
+    /**
+     * Creates new instance of {@code IdempotencyKeyInProgressException}.
+     *
+     * @param key the idempotency key
+     */
+    public IdempotencyKeyInProgressException(final String key) {
+        super(TYPE, "Idempotency Key In Progress", Status.CONFLICT,
+                String.format("A request with idempotency key '%s' is still in progress", key), null);
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.deviceapi.exception;
+
+import org.zalando.problem.Status;
+
+import java.net.URI;
+
+/**
+ * Thrown when an idempotency key is sent again with a different request.
+ */
+public class IdempotencyKeyReusedException extends AbstractCustomThrowableProblem {
+
+    private static final URI TYPE = URI.create("urn:device-api:problem-type:idempotency_key_reused");
+
+    /**
+     * Creates new instance of {@code IdempotencyKeyReusedException}.
+     *
+     * @param key the idempotency key
+     */
+    public IdempotencyKeyReusedException(final String key) {
+        super(TYPE, "Idempotency Key Reused", Status.UNPROCESSABLE_ENTITY,
+                String.format("Idempotency key '%s' was already used with a different request", key), null);
+    }
+}
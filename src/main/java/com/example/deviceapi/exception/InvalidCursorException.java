@@ -0,0 +1,21 @@
+
+package com.example.deviceapi.exception;
+
+import org.zalando.problem.Status;
+
+import java.net.URI;
+
+/**
+ * Thrown when a pagination cursor cannot be decoded.
+ */
+public class InvalidCursorException extends AbstractCustomThrowableProblem {
+
+    private static final URI TYPE = URI.create("urn:device-api:problem-type:invalid_cursor");
+
+    /**
+     * Creates new instance of {@code InvalidCursorException}.
+     */
+    public InvalidCursorException() {
+        super(TYPE, "Invalid cursor", Status.BAD_REQUEST, "The pagination cursor is malformed or expired", null);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.deviceapi.exception;
+
+import org.zalando.problem.Status;
+
+import java.net.URI;
+
+/**
+ * Thrown when a search refers to an unknown device property.
+ */
+public class InvalidSearchException extends AbstractCustomThrowableProblem {
+
+    private static final URI TYPE = URI.create("urn:device-api:problem-type:invalid_search");
+
+    /**
+     * Creates new instance of {@code InvalidSearchException}.
+     *
+     * @param message the message
+     */
+    public InvalidSearchException(final String message) {
+        super(TYPE, "Invalid search", Status.BAD_REQUEST, message, null);
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.deviceapi.exception;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ResponseStatusException;
+import org.zalando.problem.Problem;
+import org.zalando.problem.Status;
+import org.zalando.problem.StatusType;
+import org.zalando.problem.ThrowableProblem;
+
+import java.net.URI;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Renders errors of the reactive profile as Problem bodies, like {@link ExceptionHandling} does for Spring MVC.
+ *
+ * Problems are counted in the {@value ExceptionHandling#PROBLEMS_METRIC} counter, and {@link AbstractDomainProblem}s
+ * are only logged at debug level, one in {@value ExceptionHandling#DOMAIN_PROBLEM_LOG_SAMPLING}.
+ */
+@RestControllerAdvice
+@Profile("reactive")
+@Slf4j
+@RequiredArgsConstructor
+public class ReactiveExceptionHandling {
+
+    private static final URI CONSTRAINT_VIOLATION_TYPE = URI.create("urn:device-api:problem-type:validation_constraint");
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<Class<?>, Counter> domainProblemCounters = new ConcurrentHashMap<>();
+    private final AtomicLong domainProblems = new AtomicLong();
+
+    /**
+     * Handle problem response entity.
+     *
+     * @param problem the problem
+     * @return the response entity
+     */
+    @ExceptionHandler(ThrowableProblem.class)
+    public ResponseEntity<Problem> handleProblem(final ThrowableProblem problem) {
+        meterRegistry.counter(ExceptionHandling.PROBLEMS_METRIC,
+                "problem", problem.getClass().getSimpleName(),
+                "status", problem.getStatus() == null ? "none" : String.valueOf(problem.getStatus().getStatusCode()))
+                .increment();
+        if (problem.getStatus() == null || Status.NOT_FOUND.getStatusCode() != problem.getStatus().getStatusCode()) {
+            log.error(problem.toString(), problem);
+        }
+        return create(problem.getStatus(), problem);
+    }
+
+    /**
+     * Handle a domain problem, an expected outcome: counted, and only logged at debug level, sampled.
+     *
+     * @param problem the problem
+     * @return the response entity
+     */
+    @ExceptionHandler(AbstractDomainProblem.class)
+    public ResponseEntity<Problem> handleDomainProblem(final AbstractDomainProblem problem) {
+        domainProblemCounters.computeIfAbsent(problem.getClass(), type -> meterRegistry.counter(
+                ExceptionHandling.PROBLEMS_METRIC,
+                "problem", type.getSimpleName(),
+                "status", String.valueOf(problem.getStatus().getStatusCode())))
+                .increment();
+
+        if (log.isDebugEnabled()
+                && domainProblems.getAndIncrement() % ExceptionHandling.DOMAIN_PROBLEM_LOG_SAMPLING == 0) {
+            log.debug("{} (logging one in {} domain problems)", problem, ExceptionHandling.DOMAIN_PROBLEM_LOG_SAMPLING);
+        }
+        return create(problem.getStatus(), problem);
+    }
+
+    /**
+     * Handle a write the database aborted because of a concurrent one.
+     *
+     * @param exception the exception
+     * @return the response entity
+     */
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public ResponseEntity<Problem> handleConcurrencyFailure(final ConcurrencyFailureException exception) {
+        log.debug("Write aborted by a concurrent one", exception);
+        return handleDomainProblem(new ConcurrentUpdateException());
+    }
+
+    /**
+     * Handle bean validation failures of request bodies.
+     *
+     * @param exception the exception
+     * @return the response entity
+     */
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<Problem> handleBindException(final WebExchangeBindException exception) {
+        String detail = exception.getFieldErrors().stream()
+                .map(error -> error.getField() + ": " + error.getDefaultMessage())
+                .reduce((first, second) -> first + "; " + second)
+                .orElse(exception.getReason());
+        return create(Status.BAD_REQUEST, Problem.builder()
+                .withType(CONSTRAINT_VIOLATION_TYPE)
+                .withTitle("Constraint Violation")
+                .withStatus(Status.BAD_REQUEST)
+                .withDetail(detail)
+                .build());
+    }
+
+    /**
+     * Handle framework errors such as unreadable bodies or unknown routes.
+     *
+     * @param exception the exception
+     * @return the response entity
+     */
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<Problem> handleResponseStatusException(final ResponseStatusException exception) {
+        Status status = Status.valueOf(exception.getStatusCode().value());
+        return create(status, Problem.builder()
+                .withTitle(status.getReasonPhrase())
+                .withStatus(status)
+                .withDetail(exception.getReason())
+                .build());
+    }
+
+    /**
+     * Handle any other error as an internal server error.
+     *
+     * @param throwable the throwable
+     * @return the response entity
+     */
+    @ExceptionHandler(Throwable.class)
+    public ResponseEntity<Problem> handleThrowable(final Throwable throwable) {
+        log.error(throwable.getMessage(), throwable);
+        return create(Status.INTERNAL_SERVER_ERROR, Problem.valueOf(Status.INTERNAL_SERVER_ERROR));
+    }
+
+    private static ResponseEntity<Problem> create(final StatusType status, final Problem problem) {
+        int code = status == null ? Status.INTERNAL_SERVER_ERROR.getStatusCode() : status.getStatusCode();
+        return ResponseEntity.status(code).contentType(MediaType.APPLICATION_PROBLEM_JSON).body(problem);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.deviceapi.exception;
+
+import org.zalando.problem.Status;
+
+import java.net.URI;
+
+/**
+ * Thrown when a request is shed because the service is at its concurrency limit.
+ */
+public class ServiceOverloadedException extends AbstractDomainProblem {
+
+    private static final URI TYPE = URI.create("urn:device-api:problem-type:service_overloaded");
+
+    /**
+     * Creates new instance of {@code ServiceOverloadedException}.
+     */
+    public ServiceOverloadedException() {
+        super(TYPE, "Service Overloaded", Status.SERVICE_UNAVAILABLE,
+                "The service is at its concurrency limit, retry later", null);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.deviceapi.exception;
+
+import org.zalando.problem.Status;
+
+import java.net.URI;
+
+/**
+ * Thrown when a client exceeds its request rate.
+ */
+public class TooManyRequestsException extends AbstractDomainProblem {
+
+    private static final URI TYPE = URI.create("urn:device-api:problem-type:too_many_requests");
+
+    /**
+     * Creates new instance of {@code TooManyRequestsException}.
+     */
+    public TooManyRequestsException() {
+        super(TYPE, "Too Many Requests", Status.TOO_MANY_REQUESTS,
+                "The request rate of the client is exceeded, retry after the Retry-After delay", null);
+    }
+}
@@ -4,6 +4,7 @@ package com.example.deviceapi.mapper;
 import com.example.deviceapi.dto.DeviceRequestDTO;
 import com.example.deviceapi.dto.DeviceResponseDTO;
 import com.example.deviceapi.entity.Device;
+import com.example.deviceapi.repository.DeviceChange;
 import org.mapstruct.Mapper;
 import org.mapstruct.MappingTarget;
 
@@ -28,6 +29,14 @@ public interface DeviceMapper {
      */
     DeviceResponseDTO toDTO(Device device);
 
+    /**
+     * To dto device response dto.
+     *
+     * @param change the device written by a conditional statement
+     * @return the device response dto
+     */
+    DeviceResponseDTO toResponse(DeviceChange change);
+
     /**
      * Update.
      *
@@ -0,0 +1,30 @@
+package com.example.deviceapi.repository;
+
+import com.example.deviceapi.entity.DeviceState;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection of a device row written by a conditional statement, together with the brand and state
+ * the row had before the statement.
+ *
+ * For a deleted device, the current and previous values are the same.
+ */
+public interface DeviceChange {
+
+    Long getId();
+
+    String getName();
+
+    String getBrand();
+
+    DeviceState getState();
+
+    LocalDateTime getCreationTime();
+
+    Long getVersion();
+
+    String getPreviousBrand();
+
+    DeviceState getPreviousState();
+}
@@ -0,0 +1,15 @@
+package com.example.deviceapi.repository;
+
+import com.example.deviceapi.entity.DeviceState;
+
+/**
+ * Projection of the number of devices of a brand in a state.
+ */
+public interface DeviceCount {
+
+    String getBrand();
+
+    DeviceState getState();
+
+    long getCount();
+}
@@ -0,0 +1,25 @@
+package com.example.deviceapi.repository;
+
+import com.example.deviceapi.entity.DeviceOutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+/**
+ * Repository interface for the device outbox.
+ */
+public interface DeviceOutboxRepository extends JpaRepository<DeviceOutboxEvent, Long> {
+
+    /**
+     * Locks the outbox events with the lowest IDs not locked by another transaction.
+     *
+     * Rows locked by a concurrent relay are skipped rather than waited for, so that several
+     * instances drain disjoint batches.
+     *
+     * @param limit the maximum number of events
+     * @return the locked events ordered by ID
+     */
+    @Query(value = "SELECT * FROM device_outbox ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<DeviceOutboxEvent> lockBatch(int limit);
+}
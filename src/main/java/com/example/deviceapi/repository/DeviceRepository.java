@@ -3,27 +3,297 @@ package com.example.deviceapi.repository;
 
 import com.example.deviceapi.entity.Device;
 import com.example.deviceapi.entity.DeviceState;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for Device entity.
+ *
+ * List queries are keyset queries: they seek past the last seen ID and are ordered by ID,
+ * so the cost of a page does not depend on how deep into the result set it is.
+ *
+ * Writes to existing devices are single conditional statements that enforce the {@code IN_USE} rules and the
+ * expected version in the database; when they affect no row, {@link #findById} tells why.
+ *
+ * The device table is partitioned by {@code archived}: list queries read the hot partition unless asked to
+ * include the archived devices, while lookups and writes by ID reach both. Updates move archived devices back
+ * to the hot partition.
+ *
+ * Deletes are soft: they set {@code deleted_at}, which every query filters on, derived and JPQL queries through
+ * the restriction of {@link Device}, native ones explicitly, and increment the version, so that a stale write fails.
+ * {@link #purgeDeleted} removes deleted devices for good.
  */
-public interface DeviceRepository extends JpaRepository<Device, Long> {
+public interface DeviceRepository extends JpaRepository<Device, Long>, DeviceSearchRepository {
+
+    /**
+     * JDBC fetch size used when streaming the device table.
+     */
+    int EXPORT_FETCH_SIZE = 1000;
+
+    /**
+     * Updates a device in one statement, unless it is in use and its name or brand would change,
+     * or it is not at the expected version.
+     *
+     * {@code null} arguments keep the current value of their column; a {@code null} version matches any version.
+     * The row is locked by the sub-select first, so the previous brand and state returned are the ones
+     * the update was applied to.
+     *
+     * @param id      the device ID
+     * @param name    the new name
+     * @param brand   the new brand
+     * @param state   the name of the new state
+     * @param version the expected current version
+     * @return the updated device, empty if the device does not exist, is locked or has another version
+     */
+    @Query(value = """
+            UPDATE device d
+            SET name = COALESCE(CAST(:name AS VARCHAR), d.name),
+                brand = COALESCE(CAST(:brand AS VARCHAR), d.brand),
+                state = COALESCE(CAST(:state AS VARCHAR), d.state),
+                version = d.version + 1,
+                archived = false
+            FROM (SELECT id, brand, state FROM device WHERE id = :id AND deleted_at IS NULL FOR UPDATE) previous
+            WHERE d.id = previous.id
+              AND (CAST(:version AS BIGINT) IS NULL OR d.version = CAST(:version AS BIGINT))
+              AND (d.state <> 'IN_USE'
+                   OR (d.name = COALESCE(CAST(:name AS VARCHAR), d.name) AND d.brand = COALESCE(CAST(:brand AS VARCHAR), d.brand)))
+            RETURNING d.id AS "id", d.name AS "name", d.brand AS "brand", d.state AS "state",
+                      d.creation_time AS "creationTime", d.version AS "version",
+                      previous.brand AS "previousBrand", previous.state AS "previousState\"""", nativeQuery = true)
+    Optional<DeviceChange> updateUnlessLocked(Long id, String name, String brand, String state, Long version);
+
+    /**
+     * Marks a device deleted in one statement, unless it is in use or not at the expected version.
+     *
+     * @param id      the device ID
+     * @param version the expected current version, {@code null} to match any version
+     * @return the deleted device, empty if the device does not exist, is in use or has another version
+     */
+    @Query(value = """
+            UPDATE device
+            SET deleted_at = now(), version = version + 1
+            WHERE id = :id
+              AND deleted_at IS NULL
+              AND state <> 'IN_USE'
+              AND (CAST(:version AS BIGINT) IS NULL OR version = CAST(:version AS BIGINT))
+            RETURNING id AS "id", name AS "name", brand AS "brand", state AS "state",
+                      creation_time AS "creationTime", version AS "version",
+                      brand AS "previousBrand", state AS "previousState\"""", nativeQuery = true)
+    Optional<DeviceChange> deleteUnlessInUse(Long id, Long version);
+
+    /**
+     * Moves a device from one state to another in one compare-and-set statement.
+     *
+     * @param id   the device ID
+     * @param from the name of the state the device must be in
+     * @param to   the name of the new state
+     * @return the updated device, empty if the device does not exist or is not in the {@code from} state
+     */
+    @Query(value = """
+            UPDATE device
+            SET state = CAST(:to AS VARCHAR), version = version + 1, archived = false
+            WHERE id = :id AND state = CAST(:from AS VARCHAR) AND deleted_at IS NULL
+            RETURNING id AS "id", name AS "name", brand AS "brand", state AS "state",
+                      creation_time AS "creationTime", version AS "version",
+                      brand AS "previousBrand", CAST(:from AS VARCHAR) AS "previousState\"""", nativeQuery = true)
+    Optional<DeviceChange> transition(Long id, String from, String to);
+
+    /**
+     * Moves the available device of a brand with the lowest ID to {@code IN_USE}.
+     *
+     * Available devices locked by a concurrent claim are skipped rather than waited for,
+     * so concurrent claims never block each other.
+     *
+     * @param brand the brand
+     * @return the claimed device, empty if no device of the brand is available
+     */
+    @Query(value = """
+            UPDATE device d
+            SET state = 'IN_USE', version = d.version + 1
+            FROM (SELECT id FROM device
+                  WHERE brand = :brand AND state = 'AVAILABLE' AND NOT archived AND deleted_at IS NULL
+                  ORDER BY id
+                  LIMIT 1
+                  FOR UPDATE SKIP LOCKED) claimed
+            WHERE d.id = claimed.id
+            RETURNING d.id AS "id", d.name AS "name", d.brand AS "brand", d.state AS "state",
+                      d.creation_time AS "creationTime", d.version AS "version",
+                      d.brand AS "previousBrand", 'AVAILABLE' AS "previousState\"""", nativeQuery = true)
+    Optional<DeviceChange> claimAvailable(String brand);
+
+    /**
+     * Finds the devices not archived whose name contains, even approximately, the query, best match first.
+     *
+     * {@code <%} selects names with a {@code word_similarity} above {@code pg_trgm.word_similarity_threshold}
+     * through the trigram index; only those candidates are ranked.
+     *
+     * @param query the name, or part of it
+     * @param limit the maximum number of devices
+     * @return the matching devices
+     */
+    @Query(value = """
+            SELECT * FROM device
+            WHERE CAST(:query AS VARCHAR) <% name AND NOT archived AND deleted_at IS NULL
+            ORDER BY word_similarity(CAST(:query AS VARCHAR), name) DESC, id
+            LIMIT :limit""", nativeQuery = true)
+    List<Device> searchByName(String query, int limit);
+
+    /**
+     * Counts the devices of each brand in each state.
+     *
+     * @return one count per brand and state having at least one device
+     */
+    @Query("select d.brand as brand, d.state as state, count(d) as count from Device d group by d.brand, d.state")
+    List<DeviceCount> countByBrandAndState();
+
+    /**
+     * Marks deleted a batch of the devices in the given state created before the given time, lowest IDs first;
+     * devices in use are never deleted.
+     *
+     * Devices locked by a concurrent statement are skipped.
+     *
+     * @param state         the name of the state
+     * @param createdBefore the creation time devices must be older than
+     * @param limit         the maximum number of devices to delete
+     * @return the deleted devices
+     */
+    @Query(value = """
+            UPDATE device
+            SET deleted_at = now(), version = version + 1
+            WHERE (id, archived) IN (SELECT id, archived FROM device
+                                     WHERE state = CAST(:state AS VARCHAR)
+                                       AND state <> 'IN_USE'
+                                       AND creation_time < :createdBefore
+                                       AND deleted_at IS NULL
+                                     ORDER BY id
+                                     LIMIT :limit
+                                     FOR UPDATE SKIP LOCKED)
+            RETURNING id AS "id", name AS "name", brand AS "brand", state AS "state",
+                      creation_time AS "creationTime", version AS "version",
+                      brand AS "previousBrand", state AS "previousState\"""", nativeQuery = true)
+    List<DeviceChange> deleteAllUnlessInUse(String state, LocalDateTime createdBefore, int limit);
+
+    /**
+     * Removes for good a batch of the devices deleted before the given time, oldest first.
+     *
+     * Devices locked by a concurrent statement are skipped.
+     *
+     * @param deletedBefore the time devices must have been deleted before
+     * @param limit         the maximum number of devices to remove
+     * @return the number of removed devices
+     */
+    @Modifying
+    @Query(value = """
+            DELETE FROM device
+            WHERE (id, archived) IN (SELECT id, archived FROM device
+                                     WHERE deleted_at < :deletedBefore
+                                     ORDER BY deleted_at
+                                     LIMIT :limit
+                                     FOR UPDATE SKIP LOCKED)""", nativeQuery = true)
+    int purgeDeleted(LocalDateTime deletedBefore, int limit);
+
+    /**
+     * Archives a batch of the devices that have been {@code INACTIVE} since before the given time,
+     * longest inactive first, moving them to the archive partition.
+     *
+     * Devices locked by a concurrent write are skipped; their version is kept, as their content does not change.
+     *
+     * @param inactiveBefore the time devices must have become inactive before
+     * @param limit          the maximum number of devices to archive
+     * @return the IDs of the archived devices
+     */
+    @Query(value = """
+            UPDATE device
+            SET archived = true
+            WHERE NOT archived
+              AND id IN (SELECT id FROM device
+                         WHERE NOT archived AND state = 'INACTIVE' AND state_changed_at < :inactiveBefore
+                           AND deleted_at IS NULL
+                         ORDER BY state_changed_at
+                         LIMIT :limit
+                         FOR UPDATE SKIP LOCKED)
+            RETURNING id""", nativeQuery = true)
+    List<Long> archiveInactive(LocalDateTime inactiveBefore, int limit);
+
     /**
-     * Find by brand list.
+     * Find the devices not archived with an ID greater than the given one.
+     *
+     * @param id    the ID to seek after
+     * @param limit the maximum number of devices to return
+     * @return the list ordered by ID
+     */
+    List<Device> findByArchivedFalseAndIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * Find by brand the devices not archived with an ID greater than the given one.
      *
      * @param brand the brand
-     * @return the list
+     * @param id    the ID to seek after
+     * @param limit the maximum number of devices to return
+     * @return the list ordered by ID
      */
-    List<Device> findByBrand(String brand);
+    List<Device> findByArchivedFalseAndBrandAndIdGreaterThanOrderByIdAsc(String brand, Long id, Limit limit);
 
     /**
-     * Find by state list.
+     * Find by state the devices not archived with an ID greater than the given one.
      *
      * @param state the state
-     * @return the list
+     * @param id    the ID to seek after
+     * @param limit the maximum number of devices to return
+     * @return the list ordered by ID
+     */
+    List<Device> findByArchivedFalseAndStateAndIdGreaterThanOrderByIdAsc(DeviceState state, Long id, Limit limit);
+
+    /**
+     * Find the devices with an ID greater than the given one, archived or not.
+     *
+     * @param id    the ID to seek after
+     * @param limit the maximum number of devices to return
+     * @return the list ordered by ID
+     */
+    List<Device> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * Find by brand the devices with an ID greater than the given one, archived or not.
+     *
+     * @param brand the brand
+     * @param id    the ID to seek after
+     * @param limit the maximum number of devices to return
+     * @return the list ordered by ID
+     */
+    List<Device> findByBrandAndIdGreaterThanOrderByIdAsc(String brand, Long id, Limit limit);
+
+    /**
+     * Find by state the devices with an ID greater than the given one, archived or not.
+     *
+     * @param state the state
+     * @param id    the ID to seek after
+     * @param limit the maximum number of devices to return
+     * @return the list ordered by ID
+     */
+    List<Device> findByStateAndIdGreaterThanOrderByIdAsc(DeviceState state, Long id, Limit limit);
+
+    /**
+     * Streams every device ordered by ID through a forward-only, read-only cursor.
+     *
+     * Rows are pulled from the driver {@value #EXPORT_FETCH_SIZE} at a time, so the stream must be consumed
+     * inside a transaction (PostgreSQL only honours the fetch size with auto-commit off) and closed afterwards.
+     *
+     * @return the stream of devices
      */
-    List<Device> findByState(DeviceState state);
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Device> streamAllByOrderByIdAsc();
 }
@@ -0,0 +1,25 @@
+package com.example.deviceapi.repository;
+
+import com.example.deviceapi.entity.Device;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Search queries of {@link DeviceRepository} that select only some device columns.
+ */
+public interface DeviceSearchRepository {
+
+    /**
+     * Finds the devices matching a specification, reading only the given properties.
+     *
+     * @param specification the filter, {@code null} to match any device
+     * @param properties    the properties to select
+     * @param sort          the order of the devices
+     * @param limit         the maximum number of devices
+     * @return one map per device from property name to value, in the order of {@code properties}
+     */
+    List<Map<String, Object>> search(Specification<Device> specification, List<String> properties, Sort sort, int limit);
+}
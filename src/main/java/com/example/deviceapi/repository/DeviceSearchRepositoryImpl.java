@@ -0,0 +1,60 @@
+package com.example.deviceapi.repository;
+
+import com.example.deviceapi.entity.Device;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Criteria API implementation of {@link DeviceSearchRepository}.
+ *
+ * Results are tuples of the selected columns, so no {@link Device} entity is instantiated nor tracked.
+ */
+public class DeviceSearchRepositoryImpl implements DeviceSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Map<String, Object>> search(Specification<Device> specification, List<String> properties, Sort sort, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Device> root = query.from(Device.class);
+        List<Selection<?>> selections = properties.stream()
+                .<Selection<?>>map(property -> root.get(property).alias(property))
+                .toList();
+        query.multiselect(selections);
+        if (specification != null) {
+            Predicate predicate = specification.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList()
+                .stream()
+                .map(tuple -> {
+                    Map<String, Object> device = new LinkedHashMap<>();
+                    for (String property : properties) {
+                        device.put(property, tuple.get(property));
+                    }
+                    return device;
+                })
+                .toList();
+    }
+}
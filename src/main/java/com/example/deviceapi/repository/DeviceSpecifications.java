@@ -0,0 +1,47 @@
+package com.example.deviceapi.repository;
+
+import com.example.deviceapi.entity.Device;
+import com.example.deviceapi.entity.DeviceState;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+/**
+ * Device filters for searches; each returns {@code null}, matching any device, when given no value,
+ * so they can be combined with {@link Specification#allOf} regardless of which ones are set.
+ */
+public final class DeviceSpecifications {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private DeviceSpecifications() {
+    }
+
+    public static Specification<Device> hasBrand(String brand) {
+        return brand == null ? null : (root, query, cb) -> cb.equal(root.get("brand"), brand);
+    }
+
+    public static Specification<Device> hasState(DeviceState state) {
+        return state == null ? null : (root, query, cb) -> cb.equal(root.get("state"), state);
+    }
+
+    public static Specification<Device> nameStartsWith(String prefix) {
+        if (prefix == null || prefix.isEmpty()) {
+            return null;
+        }
+        String pattern = prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        return (root, query, cb) -> cb.like(root.get("name"), pattern, LIKE_ESCAPE);
+    }
+
+    public static Specification<Device> createdFrom(LocalDateTime from) {
+        return from == null ? null : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("creationTime"), from);
+    }
+
+    public static Specification<Device> createdBefore(LocalDateTime to) {
+        return to == null ? null : (root, query, cb) -> cb.lessThan(root.get("creationTime"), to);
+    }
+
+    public static Specification<Device> notArchived(boolean includeArchived) {
+        return includeArchived ? null : (root, query, cb) -> cb.isFalse(root.get("archived"));
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.deviceapi.repository;
+
+import com.example.deviceapi.entity.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repository interface for idempotency keys.
+ *
+ * Lookups are read-write transactions so that they run on the primary: a replica lagging behind a
+ * reservation would let a duplicate request through.
+ */
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+
+    /**
+     * Finds an unexpired key.
+     *
+     * @param id  the key
+     * @param now the current time
+     * @return the key, if any
+     */
+    @Transactional
+    Optional<IdempotencyKey> findByIdAndExpiresAtAfter(String id, LocalDateTime now);
+
+    /**
+     * Inserts a key without a response, or takes over an expired one.
+     *
+     * @param id          the key
+     * @param fingerprint the fingerprint of the request
+     * @param expiresAt   the end of the reservation
+     * @param now         the current time
+     * @return 1 if the key was reserved, 0 if an unexpired entry holds it
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            INSERT INTO idempotency_key (id, fingerprint, response, expires_at)
+            VALUES (:id, :fingerprint, NULL, :expiresAt)
+            ON CONFLICT (id) DO UPDATE
+                SET fingerprint = excluded.fingerprint, response = NULL, expires_at = excluded.expires_at
+                WHERE idempotency_key.expires_at < :now""", nativeQuery = true)
+    int reserve(String id, String fingerprint, LocalDateTime expiresAt, LocalDateTime now);
+
+    /**
+     * Records the response of a key.
+     *
+     * @param id        the key
+     * @param response  the response as JSON
+     * @param expiresAt the end of the replay
+     * @return the number of updated keys
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyKey k SET k.response = :response, k.expiresAt = :expiresAt WHERE k.id = :id")
+    int complete(String id, String response, LocalDateTime expiresAt);
+
+    /**
+     * Deletes the expired keys.
+     *
+     * @param now the current time
+     * @return the number of deleted keys
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.expiresAt < :now")
+    int deleteExpired(LocalDateTime now);
+}
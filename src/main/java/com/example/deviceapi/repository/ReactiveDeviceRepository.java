@@ -0,0 +1,89 @@
+
+package com.example.deviceapi.repository;
+
+import com.example.deviceapi.entity.Device;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive repository for Device entity, used by the reactive profile.
+ *
+ * Mirrors the keyset queries of {@link DeviceRepository} on R2DBC; pages leave out the archived devices,
+ * and every query the deleted ones.
+ */
+public interface ReactiveDeviceRepository extends R2dbcRepository<Device, Long> {
+
+    /**
+     * Takes the next value of the device sequence.
+     *
+     * The JPA pooled optimizer hands out the IDs below each sequence value, so a value used as is
+     * can never collide with IDs allocated by JPA.
+     *
+     * @return the next ID
+     */
+    @Query("SELECT nextval('device_seq')")
+    Mono<Long> nextId();
+
+    /**
+     * Finds a device that is not deleted.
+     *
+     * @param id the device ID
+     * @return the device, empty if it does not exist or is deleted
+     */
+    @Override
+    @Query("SELECT * FROM device WHERE id = :id AND deleted_at IS NULL")
+    Mono<Device> findById(Long id);
+
+    /**
+     * Marks a device deleted, unless it is in use.
+     *
+     * @param id the device ID
+     * @return the number of deleted devices
+     */
+    @Modifying
+    @Query("UPDATE device SET deleted_at = now(), version = version + 1 WHERE id = :id AND state <> 'IN_USE' AND deleted_at IS NULL")
+    Mono<Integer> markDeleted(Long id);
+
+    /**
+     * Find the devices with an ID greater than the given one.
+     *
+     * @param id    the ID to seek after
+     * @param limit the maximum number of devices to return
+     * @return the devices ordered by ID
+     */
+    @Query("SELECT * FROM device WHERE NOT archived AND deleted_at IS NULL AND id > :id ORDER BY id LIMIT :limit")
+    Flux<Device> findPage(Long id, int limit);
+
+    /**
+     * Find by brand the devices with an ID greater than the given one.
+     *
+     * @param brand the brand
+     * @param id    the ID to seek after
+     * @param limit the maximum number of devices to return
+     * @return the devices ordered by ID
+     */
+    @Query("SELECT * FROM device WHERE NOT archived AND deleted_at IS NULL AND brand = :brand AND id > :id ORDER BY id LIMIT :limit")
+    Flux<Device> findPageByBrand(String brand, Long id, int limit);
+
+    /**
+     * Find by state the devices with an ID greater than the given one.
+     *
+     * @param state the state
+     * @param id    the ID to seek after
+     * @param limit the maximum number of devices to return
+     * @return the devices ordered by ID
+     */
+    @Query("SELECT * FROM device WHERE NOT archived AND deleted_at IS NULL AND state = :state AND id > :id ORDER BY id LIMIT :limit")
+    Flux<Device> findPageByState(String state, Long id, int limit);
+
+    /**
+     * Streams every device ordered by ID; rows are fetched as the subscriber requests them.
+     *
+     * @return the devices
+     */
+    @Query("SELECT * FROM device WHERE deleted_at IS NULL ORDER BY id")
+    Flux<Device> streamAll();
+}
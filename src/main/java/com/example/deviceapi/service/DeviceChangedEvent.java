@@ -0,0 +1,42 @@
+package com.example.deviceapi.service;
+
+import com.example.deviceapi.dto.DeviceResponseDTO;
+import com.example.deviceapi.entity.DeviceState;
+
+/**
+ * Application event published by the device service for every device it creates, updates or deletes.
+ *
+ * The event is published inside the transaction of the change; listeners that must only see committed
+ * changes listen with {@link org.springframework.transaction.event.TransactionalEventListener}.
+ *
+ * @param type          the kind of change
+ * @param device        the device after the change; for a delete, the device as it was deleted
+ * @param previousBrand the brand before the change, {@code null} for a create
+ * @param previousState the state before the change, {@code null} for a create
+ */
+public record DeviceChangedEvent(
+    Type type,
+    DeviceResponseDTO device,
+    String previousBrand,
+    DeviceState previousState
+) {
+
+    /**
+     * Kind of change.
+     */
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    public static DeviceChangedEvent created(DeviceResponseDTO device) {
+        return new DeviceChangedEvent(Type.CREATED, device, null, null);
+    }
+
+    public static DeviceChangedEvent updated(DeviceResponseDTO device, String previousBrand, DeviceState previousState) {
+        return new DeviceChangedEvent(Type.UPDATED, device, previousBrand, previousState);
+    }
+
+    public static DeviceChangedEvent deleted(DeviceResponseDTO device) {
+        return new DeviceChangedEvent(Type.DELETED, device, device.brand(), device.state());
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.deviceapi.service;
+
+import com.example.deviceapi.entity.DeviceOutboxEvent;
+
+import java.util.List;
+
+/**
+ * Destination of the device changes relayed from the outbox.
+ *
+ * Delivery is unordered and at least once: a batch is removed from the outbox only after {@link #deliver} returns,
+ * and delivered again if it throws or the relay stops before committing. Changes of the same device may arrive
+ * out of order, since outbox IDs are allocated in blocks per instance and concurrent relays deliver their batches
+ * in parallel; consumers needing order compare the device version in the payload, a delete being final.
+ */
+public interface DeviceEventSink {
+
+    /**
+     * Delivers a batch of device changes.
+     *
+     * @param events the events
+     * @throws Exception if the batch could not be delivered
+     */
+    void deliver(List<DeviceOutboxEvent> events) throws Exception;
+}
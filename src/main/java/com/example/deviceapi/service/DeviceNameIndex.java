@@ -0,0 +1,23 @@
+package com.example.deviceapi.service;
+
+import com.example.deviceapi.dto.DeviceResponseDTO;
+
+import java.util.List;
+
+/**
+ * Fuzzy search of devices by name.
+ *
+ * Implementations rank names by the share of the query's trigrams they contain, like PostgreSQL's
+ * {@code word_similarity}, so that partial and misspelled names still match.
+ */
+public interface DeviceNameIndex {
+
+    /**
+     * Finds the devices whose name best matches the query.
+     *
+     * @param query the name, or part of it
+     * @param limit the maximum number of devices
+     * @return the matching devices, best match first
+     */
+    List<DeviceResponseDTO> search(String query, int limit);
+}
@@ -1,11 +1,19 @@
 
 package com.example.deviceapi.service;
 
+import com.example.deviceapi.dto.DeviceBatchRequestDTO;
+import com.example.deviceapi.dto.DeviceBatchResponseDTO;
+import com.example.deviceapi.dto.DevicePageDTO;
 import com.example.deviceapi.dto.DeviceRequestDTO;
 import com.example.deviceapi.dto.DeviceResponseDTO;
+import com.example.deviceapi.dto.DeviceSearchDTO;
+import com.example.deviceapi.dto.DeviceStatsDTO;
 import com.example.deviceapi.entity.DeviceState;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Service interface for managing devices.
@@ -15,6 +23,16 @@ import java.util.List;
  */
 public interface DeviceService {
 
+    /**
+     * Upper bound for the page size of list operations; larger limits are capped to it.
+     */
+    int MAX_PAGE_SIZE = 1000;
+
+    /**
+     * Upper bound for the number of items in each list of a batch.
+     */
+    int MAX_BATCH_SIZE = 10_000;
+
     /**
      * Creates a new device with the given data.
      *
@@ -23,23 +41,62 @@ public interface DeviceService {
      */
     DeviceResponseDTO create(DeviceRequestDTO request);
 
+    /**
+     * Applies creates, full updates and deletes in a single transaction, written through batched statements.
+     *
+     * Each item is checked against the same rules as the single-device operations; an item that breaks them
+     * is reported in the result and does not prevent the other items from being applied.
+     *
+     * @param request the changes to apply
+     * @return the per-item results
+     */
+    DeviceBatchResponseDTO batch(DeviceBatchRequestDTO request);
+
     /**
      * Fully updates an existing device.
      *
      * @param id the ID of the device to update
      * @param request the updated device data
+     * @param expectedVersions the versions one of which the device must be at, empty for any version of an existing
+     *                         device, or {@code null} for no condition
      * @return the updated device as a response DTO
      */
-    DeviceResponseDTO update(Long id, DeviceRequestDTO request);
+    DeviceResponseDTO update(Long id, DeviceRequestDTO request, List<Long> expectedVersions);
 
     /**
      * Partially updates a device.
      *
      * @param id the ID of the device to update
      * @param request the fields to update
+     * @param expectedVersions the versions one of which the device must be at, empty for any version of an existing
+     *                         device, or {@code null} for no condition
      * @return the updated device as a response DTO
      */
-    DeviceResponseDTO partialUpdate(Long id, DeviceRequestDTO request);
+    DeviceResponseDTO partialUpdate(Long id, DeviceRequestDTO request, List<Long> expectedVersions);
+
+    /**
+     * Checks out an available device, moving it to {@code IN_USE}.
+     *
+     * @param id the device ID
+     * @return the checked out device as a response DTO
+     */
+    DeviceResponseDTO checkout(Long id);
+
+    /**
+     * Checks in an in-use device, moving it back to {@code AVAILABLE}.
+     *
+     * @param id the device ID
+     * @return the checked in device as a response DTO
+     */
+    DeviceResponseDTO checkin(Long id);
+
+    /**
+     * Checks out any available device of a brand.
+     *
+     * @param brand the brand
+     * @return the checked out device as a response DTO
+     */
+    DeviceResponseDTO checkoutAny(String brand);
 
     /**
      * Retrieves a device by its ID.
@@ -50,32 +107,93 @@ public interface DeviceService {
     DeviceResponseDTO findById(Long id);
 
     /**
-     * Returns all devices in the system.
+     * Returns a page of devices, ordered by ID.
      *
-     * @return a list of device response DTOs
+     * @param after the cursor returned with the previous page, or {@code null} for the first page
+     * @param limit the maximum number of devices in the page
+     * @param includeArchived whether to include the archived devices
+     * @return the page of device response DTOs
      */
-    List<DeviceResponseDTO> findAll();
+    DevicePageDTO findAll(String after, int limit, boolean includeArchived);
 
     /**
-     * Finds devices by brand name.
+     * Finds a page of devices by brand name, ordered by ID.
      *
      * @param brand the brand name to filter by
-     * @return a list of devices matching the brand
+     * @param after the cursor returned with the previous page, or {@code null} for the first page
+     * @param limit the maximum number of devices in the page
+     * @param includeArchived whether to include the archived devices
+     * @return the page of devices matching the brand
      */
-    List<DeviceResponseDTO> findByBrand(String brand);
+    DevicePageDTO findByBrand(String brand, String after, int limit, boolean includeArchived);
 
     /**
-     * Finds devices by device state.
+     * Finds a page of devices by device state, ordered by ID.
      *
      * @param state the device state to filter by
-     * @return a list of devices in the given state
+     * @param after the cursor returned with the previous page, or {@code null} for the first page
+     * @param limit the maximum number of devices in the page
+     * @param includeArchived whether to include the archived devices
+     * @return the page of devices in the given state
      */
-    List<DeviceResponseDTO> findByState(DeviceState state);
+    DevicePageDTO findByState(DeviceState state, String after, int limit, boolean includeArchived);
+
+    /**
+     * Searches devices combining the given filters in a single query.
+     *
+     * Only the requested properties are read from the database.
+     *
+     * @param criteria the filters, sort, limit and properties to return
+     * @return one map per device from property name to value
+     */
+    List<Map<String, Object>> search(DeviceSearchDTO criteria);
+
+    /**
+     * Finds the devices whose name best matches the query, tolerating partial and misspelled names.
+     *
+     * @param query the name, or part of it
+     * @param limit the maximum number of devices
+     * @return the matching devices, best match first
+     */
+    List<DeviceResponseDTO> searchByName(String query, int limit);
+
+    /**
+     * Streams every device, ordered by ID, to the given sink.
+     *
+     * Devices are read through a database cursor and released as soon as they are handed over,
+     * so memory use does not grow with the size of the inventory.
+     *
+     * @param sink the consumer receiving each device as a response DTO
+     */
+    void exportAll(Consumer<DeviceResponseDTO> sink);
 
     /**
      * Deletes a device by its ID.
      *
      * @param id the device ID
+     * @param expectedVersions the versions one of which the device must be at, empty for any version of an existing
+     *                         device, or {@code null} for no condition
+     */
+    void delete(Long id, List<Long> expectedVersions);
+
+    /**
+     * Deletes the devices in the given state created before the given time, in batches each committed on its own.
+     *
+     * Devices in use are never deleted, nor those locked by a concurrent write while their batch is deleted.
+     *
+     * @param state the state of the devices to delete
+     * @param createdBefore the creation time devices must be older than
+     * @return the number of deleted devices
+     */
+    int deleteAll(DeviceState state, LocalDateTime createdBefore);
+
+    /**
+     * Returns the number of devices per state, per brand and per brand and state.
+     *
+     * Counts come from an in-memory summary kept up to date by every change and periodically reconciled
+     * with the database, so they may briefly lag behind concurrent writes.
+     *
+     * @return the device counts
      */
-    void delete(Long id);
+    DeviceStatsDTO stats();
 }
@@ -0,0 +1,13 @@
+package com.example.deviceapi.service;
+
+import java.util.List;
+
+/**
+ * Application event published by the archiver for every batch of devices it moves to the archive partition.
+ *
+ * Like {@link DeviceChangedEvent}, it is published inside the transaction of the batch.
+ *
+ * @param ids the IDs of the archived devices
+ */
+public record DevicesArchivedEvent(List<Long> ids) {
+}
@@ -0,0 +1,23 @@
+package com.example.deviceapi.service;
+
+import java.util.function.Supplier;
+
+/**
+ * Executes requests carrying an {@code Idempotency-Key} at most once per key.
+ */
+public interface IdempotencyService {
+
+    /**
+     * Runs the operation once per key, replaying its response to later requests with the same key until the key
+     * expires. Concurrent requests with the same key wait for the first one and share its response.
+     *
+     * @param key          the idempotency key, or {@code null} to run the operation unconditionally
+     * @param operation    the name of the operation, scoping the key with the client
+     * @param request      the request, which later requests with the same key must repeat
+     * @param responseType the type of the response
+     * @param action       the operation
+     * @param <T>          the response type
+     * @return the response of the operation
+     */
+    <T> T execute(String key, String operation, Object request, Class<T> responseType, Supplier<T> action);
+}
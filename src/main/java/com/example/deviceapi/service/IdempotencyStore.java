@@ -0,0 +1,69 @@
+package com.example.deviceapi.service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Storage of idempotency keys and the responses recorded for them.
+ */
+public interface IdempotencyStore {
+
+    /**
+     * Gets the unexpired entry of a key.
+     *
+     * @param key the key
+     * @return the entry, if any
+     */
+    Optional<Entry> find(String key);
+
+    /**
+     * Reserves a key for a request about to run, unless an unexpired entry holds it.
+     *
+     * @param key         the key
+     * @param fingerprint the fingerprint of the request
+     * @param lease       how long the reservation holds if the request never completes
+     * @return whether the key was reserved
+     */
+    boolean reserve(String key, String fingerprint, Duration lease);
+
+    /**
+     * Records the response of a reserved key.
+     *
+     * @param key      the key
+     * @param response the response as JSON
+     * @param ttl      how long the response is replayed
+     */
+    void complete(String key, String response, Duration ttl);
+
+    /**
+     * Runs the request of a reserved key and records its response. Stores kept in the database of the request record
+     * it in the transaction of the request, so that a committed request always has its response recorded.
+     *
+     * @param key     the key
+     * @param request the request, returning its response as JSON
+     * @param ttl     how long the response is replayed
+     * @return the response as JSON
+     */
+    default String runAndComplete(String key, Supplier<String> request, Duration ttl) {
+        String response = request.get();
+        complete(key, response, ttl);
+        return response;
+    }
+
+    /**
+     * Releases a reserved key whose request failed, so that it can be retried.
+     *
+     * @param key the key
+     */
+    void release(String key);
+
+    /**
+     * An idempotency key entry.
+     *
+     * @param fingerprint the fingerprint of the request
+     * @param response    the response as JSON, or {@code null} while the request is running
+     */
+    record Entry(String fingerprint, String response) {
+    }
+}
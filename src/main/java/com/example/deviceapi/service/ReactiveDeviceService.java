@@ -0,0 +1,95 @@
+
+package com.example.deviceapi.service;
+
+import com.example.deviceapi.dto.DevicePageDTO;
+import com.example.deviceapi.dto.DeviceRequestDTO;
+import com.example.deviceapi.dto.DeviceResponseDTO;
+import com.example.deviceapi.entity.DeviceState;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@link DeviceService}, used by the reactive profile.
+ *
+ * Enforces the same business rules without blocking the calling thread.
+ */
+public interface ReactiveDeviceService {
+
+    /**
+     * Creates a new device with the given data.
+     *
+     * @param request the request DTO containing device information
+     * @return the created device as a response DTO
+     */
+    Mono<DeviceResponseDTO> create(DeviceRequestDTO request);
+
+    /**
+     * Fully updates an existing device.
+     *
+     * @param id the ID of the device to update
+     * @param request the updated device data
+     * @return the updated device as a response DTO
+     */
+    Mono<DeviceResponseDTO> update(Long id, DeviceRequestDTO request);
+
+    /**
+     * Partially updates a device.
+     *
+     * @param id the ID of the device to update
+     * @param request the fields to update
+     * @return the updated device as a response DTO
+     */
+    Mono<DeviceResponseDTO> partialUpdate(Long id, DeviceRequestDTO request);
+
+    /**
+     * Retrieves a device by its ID.
+     *
+     * @param id the device ID
+     * @return the device as a response DTO
+     */
+    Mono<DeviceResponseDTO> findById(Long id);
+
+    /**
+     * Returns a page of devices, ordered by ID.
+     *
+     * @param after the cursor returned with the previous page, or {@code null} for the first page
+     * @param limit the maximum number of devices in the page
+     * @return the page of device response DTOs
+     */
+    Mono<DevicePageDTO> findAll(String after, int limit);
+
+    /**
+     * Finds a page of devices by brand name, ordered by ID.
+     *
+     * @param brand the brand name to filter by
+     * @param after the cursor returned with the previous page, or {@code null} for the first page
+     * @param limit the maximum number of devices in the page
+     * @return the page of devices matching the brand
+     */
+    Mono<DevicePageDTO> findByBrand(String brand, String after, int limit);
+
+    /**
+     * Finds a page of devices by device state, ordered by ID.
+     *
+     * @param state the device state to filter by
+     * @param after the cursor returned with the previous page, or {@code null} for the first page
+     * @param limit the maximum number of devices in the page
+     * @return the page of devices in the given state
+     */
+    Mono<DevicePageDTO> findByState(DeviceState state, String after, int limit);
+
+    /**
+     * Streams every device, ordered by ID, at the pace of the subscriber.
+     *
+     * @return the devices as response DTOs
+     */
+    Flux<DeviceResponseDTO> exportAll();
+
+    /**
+     * Deletes a device by its ID.
+     *
+     * @param id the device ID
+     * @return completion once deleted
+     */
+    Mono<Void> delete(Long id);
+}
@@ -0,0 +1,70 @@
+package com.example.deviceapi.service.impl;
+
+import com.example.deviceapi.repository.IdempotencyKeyRepository;
+import com.example.deviceapi.service.IdempotencyStore;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency store keeping the keys in the {@code idempotency_key} table, shared by all instances.
+ *
+ * Enabled by {@code device-api.idempotency.store=database}.
+ */
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "device-api.idempotency.store", havingValue = "database")
+@AllArgsConstructor
+public class DatabaseIdempotencyStore implements IdempotencyStore {
+
+    private IdempotencyKeyRepository repository;
+
+    @Override
+    public Optional<Entry> find(String key) {
+        return repository.findByIdAndExpiresAtAfter(key, LocalDateTime.now())
+                .map(stored -> new Entry(stored.getFingerprint(), stored.getResponse()));
+    }
+
+    @Override
+    public boolean reserve(String key, String fingerprint, Duration lease) {
+        LocalDateTime now = LocalDateTime.now();
+        return repository.reserve(key, fingerprint, now.plus(lease), now) == 1;
+    }
+
+    @Override
+    public void complete(String key, String response, Duration ttl) {
+        repository.complete(key, response, LocalDateTime.now().plus(ttl));
+    }
+
+    /**
+     * Runs the request in a transaction it joins, so that its changes and its response commit together.
+     */
+    @Override
+    @Transactional
+    public String runAndComplete(String key, Supplier<String> request, Duration ttl) {
+        String response = request.get();
+        complete(key, response, ttl);
+        return response;
+    }
+
+    @Override
+    public void release(String key) {
+        repository.deleteById(key);
+    }
+
+    /**
+     * Deletes the expired keys.
+     */
+    @Scheduled(fixedDelayString = "${device-api.idempotency.purge-interval}")
+    public void purge() {
+        repository.deleteExpired(LocalDateTime.now());
+    }
+}
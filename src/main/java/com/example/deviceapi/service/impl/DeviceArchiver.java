@@ -0,0 +1,98 @@
+package com.example.deviceapi.service.impl;
+
+import com.example.deviceapi.repository.DeviceRepository;
+import com.example.deviceapi.service.DevicesArchivedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves the devices {@code INACTIVE} for longer than {@code device-api.archive.after}, counted from their last
+ * state change, to the archive partition of the device table, which the list queries do not read by default.
+ *
+ * Each batch is archived in its own short transaction, skipping the devices locked by concurrent writes,
+ * so that every API instance can run the archiver and writes are never held up by it. Each batch publishes a
+ * {@link DevicesArchivedEvent}, so that the in-memory views of the hot devices can drop them.
+ *
+ * Publishes {@value #ARCHIVED_METRIC}. Disabled by {@code device-api.archive.enabled=false}.
+ */
+@Slf4j
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "device-api.archive.enabled", havingValue = "true", matchIfMissing = true)
+public class DeviceArchiver {
+
+    static final String ARCHIVED_METRIC = "device.archived";
+
+    private final DeviceRepository repository;
+    private final TransactionTemplate transaction;
+    private final ApplicationEventPublisher events;
+    private final Duration after;
+    private final int batchSize;
+    private final Counter archived;
+
+    public DeviceArchiver(DeviceRepository repository,
+                          PlatformTransactionManager transactionManager,
+                          ApplicationEventPublisher events,
+                          MeterRegistry registry,
+                          @Value("${device-api.archive.after}") Duration after,
+                          @Value("${device-api.archive.batch-size}") int batchSize) {
+        this.repository = repository;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.events = events;
+        this.after = after;
+        this.batchSize = batchSize;
+        this.archived = registry.counter(ARCHIVED_METRIC);
+    }
+
+    /**
+     * Archives batches until no eligible device is left.
+     */
+    @Scheduled(fixedDelayString = "${device-api.archive.interval}")
+    public void archive() {
+        LocalDateTime inactiveBefore = LocalDateTime.now().minus(after);
+        try {
+            int total = 0;
+            int count;
+            do {
+                count = archiveBatch(inactiveBefore);
+                total += count;
+            } while (count == batchSize);
+            if (total > 0) {
+                log.info("Archived {} devices inactive since before {}", total, inactiveBefore);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Device archival failed, retrying on the next run", e);
+        }
+    }
+
+    /**
+     * Archives one batch.
+     *
+     * @param inactiveBefore the time devices must have become inactive before
+     * @return the number of devices archived
+     */
+    int archiveBatch(LocalDateTime inactiveBefore) {
+        List<Long> ids = transaction.execute(status -> {
+            List<Long> batch = repository.archiveInactive(inactiveBefore, batchSize);
+            if (!batch.isEmpty()) {
+                events.publishEvent(new DevicesArchivedEvent(batch));
+            }
+            return batch;
+        });
+        archived.increment(ids.size());
+        return ids.size();
+    }
+}
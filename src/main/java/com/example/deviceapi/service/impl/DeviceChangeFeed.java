@@ -0,0 +1,195 @@
+package com.example.deviceapi.service.impl;
+
+import com.example.deviceapi.dto.DeviceChangeDTO;
+import com.example.deviceapi.dto.DeviceResponseDTO;
+import com.example.deviceapi.entity.DeviceState;
+import com.example.deviceapi.service.DeviceChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fan-out of committed device changes to subscribers, with a bounded replay buffer.
+ *
+ * Every change gets an increasing event ID and is kept among the last {@code device-api.changes.replay-size}
+ * changes, so that a subscriber reconnecting with the last ID it saw receives what it missed. Event IDs start
+ * from the startup time, which makes an ID from a previous run look older than the buffer.
+ *
+ * Each subscriber has its own queue, bounded to the replay size plus {@code device-api.changes.queue-size}
+ * and drained by its own virtual thread: publishing never blocks,
+ * and a subscriber whose queue fills up is closed once the queue is drained rather than slowing the others
+ * down; it can then resume from its last event ID.
+ */
+@Slf4j
+@Component
+@Profile("!reactive")
+public class DeviceChangeFeed {
+
+    private static final long IDLE_POLL_MILLIS = 1000;
+
+    private final int replaySize;
+    private final int queueSize;
+    private final Deque<DeviceChangeDTO> replay = new ArrayDeque<>();
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private long latestEventId = System.currentTimeMillis() * 1000;
+
+    public DeviceChangeFeed(@Value("${device-api.changes.replay-size}") int replaySize,
+                            @Value("${device-api.changes.queue-size}") int queueSize) {
+        this.replaySize = replaySize;
+        this.queueSize = queueSize;
+    }
+
+    /**
+     * Receives changes from a subscription.
+     *
+     * Callbacks run on the subscription's own thread; throwing {@link IOException} cancels the subscription.
+     */
+    public interface Subscriber {
+
+        /**
+         * A change matching the filters was committed.
+         *
+         * @param change the change
+         */
+        void onChange(DeviceChangeDTO change) throws IOException;
+
+        /**
+         * Some changes after the requested event ID are no longer in the replay buffer;
+         * the subscriber should reload the devices it tracks.
+         */
+        void onGap() throws IOException;
+
+        /**
+         * The subscription fell behind and was closed by the feed.
+         */
+        void onComplete();
+    }
+
+    /**
+     * Publishes a committed change to the replay buffer and the matching subscriptions.
+     *
+     * The change is queued under the lock that assigns its ID, which never blocks as queues are only offered to,
+     * so subscriptions receive changes in ID order and a concurrent {@link #subscribe} gets each change once,
+     * either replayed or queued.
+     *
+     * @param event the change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onDeviceChanged(DeviceChangedEvent event) {
+        DeviceChangeDTO change = toChange(++latestEventId, event);
+        if (replay.size() == replaySize) {
+            replay.removeFirst();
+        }
+        replay.addLast(change);
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(change);
+        }
+    }
+
+    /**
+     * Subscribes to the changes of devices matching the filters; a change matches a brand or state filter
+     * if the device had or has that brand or state.
+     *
+     * @param brand       the brand to filter by, {@code null} for any brand
+     * @param state       the state to filter by, {@code null} for any state
+     * @param lastEventId the ID of the last change seen, to replay the ones after it; {@code null} for new changes only
+     * @param subscriber  the subscriber
+     * @return the handle to cancel the subscription with
+     */
+    public Runnable subscribe(String brand, DeviceState state, Long lastEventId, Subscriber subscriber) {
+        Subscription subscription = new Subscription(brand, state, subscriber);
+        synchronized (this) {
+            if (lastEventId != null) {
+                long oldest = replay.isEmpty() ? latestEventId + 1 : replay.getFirst().eventId();
+                subscription.gap = lastEventId + 1 < oldest || lastEventId > latestEventId;
+                replay.stream()
+                        .filter(change -> change.eventId() > lastEventId)
+                        .forEach(subscription::offer);
+            }
+            subscriptions.add(subscription);
+        }
+        subscription.thread = Thread.ofVirtual().name("device-changes").start(subscription::drain);
+        return subscription::cancel;
+    }
+
+    private static DeviceChangeDTO toChange(long eventId, DeviceChangedEvent event) {
+        DeviceResponseDTO device = event.device();
+        boolean deleted = event.type() == DeviceChangedEvent.Type.DELETED;
+        return new DeviceChangeDTO(eventId, event.type(), device.id(), device.brand(), event.previousBrand(),
+                event.previousState(), deleted ? null : device.state(), deleted ? null : device);
+    }
+
+    private final class Subscription {
+
+        private final String brand;
+        private final DeviceState state;
+        private final Subscriber subscriber;
+        private final BlockingQueue<DeviceChangeDTO> queue;
+        private volatile boolean overflowed;
+        private volatile boolean cancelled;
+        private boolean gap;
+        private volatile Thread thread;
+
+        private Subscription(String brand, DeviceState state, Subscriber subscriber) {
+            this.brand = brand;
+            this.state = state;
+            this.subscriber = subscriber;
+            // Leaves room for a full replay on top of the changes queued while it is sent.
+            this.queue = new ArrayBlockingQueue<>(queueSize + replaySize);
+        }
+
+        private boolean matches(DeviceChangeDTO change) {
+            return (brand == null || brand.equals(change.brand()) || brand.equals(change.previousBrand())) &&
+                    (state == null || state == change.state() || state == change.previousState());
+        }
+
+        private void offer(DeviceChangeDTO change) {
+            if (matches(change) && !queue.offer(change)) {
+                overflowed = true;
+                subscriptions.remove(this);
+            }
+        }
+
+        private void drain() {
+            try {
+                if (gap) {
+                    subscriber.onGap();
+                }
+                while (!cancelled) {
+                    DeviceChangeDTO change = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (change != null) {
+                        subscriber.onChange(change);
+                    } else if (overflowed) {
+                        log.debug("Closing device change subscription that fell behind");
+                        subscriber.onComplete();
+                        return;
+                    }
+                }
+            } catch (IOException | InterruptedException | IllegalStateException e) {
+                log.debug("Device change subscription ended: {}", e.toString());
+            } finally {
+                subscriptions.remove(this);
+            }
+        }
+
+        private void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+            Thread drainer = thread;
+            if (drainer != null) {
+                drainer.interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+
+package com.example.deviceapi.service.impl;
+
+import com.example.deviceapi.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes and decodes the opaque keyset cursors handed out by the list endpoints.
+ *
+ * A cursor wraps the ID of the last device of a page; the next page seeks past it
+ * on the primary key instead of skipping rows with OFFSET.
+ */
+public final class DeviceCursor {
+
+    private static final String PREFIX = "v1:";
+
+    private DeviceCursor() {
+    }
+
+    /**
+     * Encodes the last seen device ID into an opaque cursor.
+     *
+     * @param lastId the ID of the last device of the current page
+     * @return the cursor
+     */
+    public static String encode(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Decodes a cursor back into the ID to seek after.
+     *
+     * @param cursor the cursor, may be {@code null} or blank for the first page
+     * @return the ID to seek after, {@code 0} for the first page
+     * @throws InvalidCursorException if the cursor is malformed
+     */
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            if (!raw.startsWith(PREFIX)) {
+                throw new InvalidCursorException();
+            }
+            long id = Long.parseLong(raw.substring(PREFIX.length()));
+            if (id < 0) {
+                throw new InvalidCursorException();
+            }
+            return id;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException();
+        }
+    }
+}
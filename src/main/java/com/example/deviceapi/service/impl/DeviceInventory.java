@@ -0,0 +1,113 @@
+package com.example.deviceapi.service.impl;
+
+import com.example.deviceapi.dto.DeviceResponseDTO;
+import com.example.deviceapi.dto.DeviceStatsDTO;
+import com.example.deviceapi.entity.DeviceState;
+import com.example.deviceapi.repository.DeviceCount;
+import com.example.deviceapi.repository.DeviceRepository;
+import com.example.deviceapi.service.DeviceChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory count of devices per brand and state.
+ *
+ * Counts move with every committed {@link DeviceChangedEvent}, so reading them costs the number of brands,
+ * not the number of devices. Writes that bypass the service, or a change committed while a reconciliation
+ * is running, can make them drift; the periodic reconciliation resets them to a {@code GROUP BY} of the table.
+ */
+@Slf4j
+@Component
+@Profile("!reactive")
+@RequiredArgsConstructor
+public class DeviceInventory {
+
+    private final DeviceRepository repository;
+    private final ConcurrentMap<Key, AtomicLong> counts = new ConcurrentHashMap<>();
+
+    /**
+     * Applies a committed change to the counts.
+     *
+     * @param event the change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeviceChanged(DeviceChangedEvent event) {
+        DeviceResponseDTO device = event.device();
+        switch (event.type()) {
+            case CREATED -> add(device.brand(), device.state(), 1);
+            case DELETED -> add(event.previousBrand(), event.previousState(), -1);
+            case UPDATED -> {
+                if (!device.brand().equals(event.previousBrand()) || device.state() != event.previousState()) {
+                    add(event.previousBrand(), event.previousState(), -1);
+                    add(device.brand(), device.state(), 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Replaces the counts with the ones of the database; runs once at startup and then every
+     * {@code device-api.stats.reconcile-interval}.
+     */
+    @Scheduled(fixedDelayString = "${device-api.stats.reconcile-interval}")
+    public void reconcile() {
+        Map<Key, Long> actual = new HashMap<>();
+        for (DeviceCount count : repository.countByBrandAndState()) {
+            actual.put(new Key(count.getBrand(), count.getState()), count.getCount());
+        }
+        counts.forEach((key, count) -> {
+            long expected = actual.getOrDefault(key, 0L);
+            long drift = count.getAndSet(expected) - expected;
+            if (drift != 0) {
+                log.debug("Device count of {} drifted by {}", key, drift);
+            }
+        });
+        actual.forEach((key, count) -> counts.computeIfAbsent(key, k -> new AtomicLong()).set(count));
+    }
+
+    /**
+     * Snapshot of the counts; brands without devices are left out.
+     *
+     * @return the device counts
+     */
+    public DeviceStatsDTO snapshot() {
+        long total = 0;
+        Map<DeviceState, Long> byState = new EnumMap<>(DeviceState.class);
+        for (DeviceState state : DeviceState.values()) {
+            byState.put(state, 0L);
+        }
+        Map<String, Long> byBrand = new TreeMap<>();
+        Map<String, Map<DeviceState, Long>> byBrandAndState = new TreeMap<>();
+        for (Map.Entry<Key, AtomicLong> entry : counts.entrySet()) {
+            long count = entry.getValue().get();
+            if (count <= 0) {
+                continue;
+            }
+            Key key = entry.getKey();
+            total += count;
+            byState.merge(key.state(), count, Long::sum);
+            byBrand.merge(key.brand(), count, Long::sum);
+            byBrandAndState.computeIfAbsent(key.brand(), brand -> new EnumMap<>(DeviceState.class)).put(key.state(), count);
+        }
+        return new DeviceStatsDTO(total, byState, byBrand, byBrandAndState);
+    }
+
+    private void add(String brand, DeviceState state, long delta) {
+        counts.computeIfAbsent(new Key(brand, state), key -> new AtomicLong()).addAndGet(delta);
+    }
+
+    private record Key(String brand, DeviceState state) {
+    }
+}
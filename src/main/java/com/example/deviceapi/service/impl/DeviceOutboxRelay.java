@@ -0,0 +1,104 @@
+package com.example.deviceapi.service.impl;
+
+import com.example.deviceapi.entity.DeviceOutboxEvent;
+import com.example.deviceapi.repository.DeviceOutboxRepository;
+import com.example.deviceapi.service.DeviceEventSink;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Drains the device outbox into the {@link DeviceEventSink}.
+ *
+ * Each batch is locked with {@code FOR UPDATE SKIP LOCKED}, delivered and deleted in one transaction, so that
+ * every API instance can run the relay: concurrent relays work on disjoint batches, and a batch whose delivery
+ * fails stays in the outbox for the next run.
+ *
+ * Publishes {@value #DELIVERED_METRIC} (throughput), {@value #FAILURES_METRIC} and {@value #LAG_METRIC},
+ * the time from the change to its delivery.
+ */
+@Slf4j
+@Component
+@Profile("!reactive")
+public class DeviceOutboxRelay {
+
+    static final String DELIVERED_METRIC = "device.outbox.delivered";
+    static final String FAILURES_METRIC = "device.outbox.failures";
+    static final String LAG_METRIC = "device.outbox.lag";
+
+    private final DeviceOutboxRepository repository;
+    private final DeviceEventSink sink;
+    private final TransactionTemplate transaction;
+    private final int batchSize;
+    private final Counter delivered;
+    private final Counter failures;
+    private final Timer lag;
+
+    public DeviceOutboxRelay(DeviceOutboxRepository repository,
+                             DeviceEventSink sink,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry registry,
+                             @Value("${device-api.outbox.batch-size}") int batchSize) {
+        this.repository = repository;
+        this.sink = sink;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.delivered = registry.counter(DELIVERED_METRIC);
+        this.failures = registry.counter(FAILURES_METRIC);
+        this.lag = Timer.builder(LAG_METRIC).publishPercentileHistogram().register(registry);
+    }
+
+    /**
+     * Relays batches until the outbox is drained or a delivery fails.
+     */
+    @Scheduled(fixedDelayString = "${device-api.outbox.poll-interval}")
+    public void relay() {
+        try {
+            int relayed;
+            do {
+                relayed = relayBatch();
+            } while (relayed == batchSize);
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.warn("Outbox delivery failed, retrying on the next run", e);
+        }
+    }
+
+    /**
+     * Delivers and deletes one batch.
+     *
+     * @return the number of events relayed
+     */
+    int relayBatch() {
+        List<DeviceOutboxEvent> events = transaction.execute(status -> {
+            List<DeviceOutboxEvent> batch = repository.lockBatch(batchSize);
+            if (batch.isEmpty()) {
+                return batch;
+            }
+            try {
+                sink.deliver(batch);
+            } catch (Exception e) {
+                throw e instanceof RuntimeException runtime ? runtime : new IllegalStateException("Outbox sink failed", e);
+            }
+            repository.deleteAllByIdInBatch(batch.stream().map(DeviceOutboxEvent::getId).toList());
+            return batch;
+        });
+        LocalDateTime now = LocalDateTime.now();
+        for (DeviceOutboxEvent event : events) {
+            lag.record(Duration.between(event.getCreatedAt(), now));
+        }
+        delivered.increment(events.size());
+        return events.size();
+    }
+}
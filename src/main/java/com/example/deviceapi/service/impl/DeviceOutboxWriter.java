@@ -0,0 +1,53 @@
+package com.example.deviceapi.service.impl;
+
+import com.example.deviceapi.entity.DeviceOutboxEvent;
+import com.example.deviceapi.repository.DeviceOutboxRepository;
+import com.example.deviceapi.service.DeviceChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+
+/**
+ * Writes every device change to the outbox, in the transaction of the change.
+ *
+ * The row is only persisted here and inserted when the transaction flushes, so the outbox costs the
+ * serialization of the change and one batched insert per transaction, not a round trip per change.
+ */
+@Component
+@Profile("!reactive")
+public class DeviceOutboxWriter {
+
+    private final DeviceOutboxRepository repository;
+    private final ObjectWriter writer;
+
+    public DeviceOutboxWriter(DeviceOutboxRepository repository, ObjectMapper objectMapper) {
+        this.repository = repository;
+        this.writer = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    /**
+     * Adds a change to the outbox.
+     *
+     * @param event the change
+     */
+    @EventListener
+    public void onDeviceChanged(DeviceChangedEvent event) {
+        try {
+            repository.save(DeviceOutboxEvent.builder()
+                    .type(event.type().name())
+                    .deviceId(event.device().id())
+                    .payload(writer.writeValueAsString(event))
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.deviceapi.service.impl;
+
+import com.example.deviceapi.config.AdaptiveConcurrencyLimiter;
+import com.example.deviceapi.repository.DeviceRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Removes for good the devices deleted more than {@code device-api.purge.after} ago.
+ *
+ * Deletes only mark devices, so that large cleanups are one cheap statement; the rows are removed here in batches
+ * of {@code device-api.purge.batch-size}, each in its own short transaction skipping locked rows. Batches only run
+ * while the API is under light load, with fewer requests in flight than {@code device-api.purge.max-load} of the
+ * concurrency limit, and the purge resumes on the next run otherwise.
+ *
+ * Publishes {@value #PURGED_METRIC}. Disabled by {@code device-api.purge.enabled=false}.
+ */
+@Slf4j
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "device-api.purge.enabled", havingValue = "true", matchIfMissing = true)
+public class DevicePurger {
+
+    static final String PURGED_METRIC = "device.purged";
+
+    private final DeviceRepository repository;
+    private final TransactionTemplate transaction;
+    private final ObjectProvider<AdaptiveConcurrencyLimiter> limiter;
+    private final Duration after;
+    private final int batchSize;
+    private final double maxLoad;
+    private final Counter purged;
+
+    public DevicePurger(DeviceRepository repository,
+                        PlatformTransactionManager transactionManager,
+                        ObjectProvider<AdaptiveConcurrencyLimiter> limiter,
+                        MeterRegistry registry,
+                        @Value("${device-api.purge.after}") Duration after,
+                        @Value("${device-api.purge.batch-size}") int batchSize,
+                        @Value("${device-api.purge.max-load}") double maxLoad) {
+        this.repository = repository;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.limiter = limiter;
+        this.after = after;
+        this.batchSize = batchSize;
+        this.maxLoad = maxLoad;
+        this.purged = registry.counter(PURGED_METRIC);
+    }
+
+    /**
+     * Purges batches until no deleted device is left or the load rises.
+     */
+    @Scheduled(fixedDelayString = "${device-api.purge.interval}")
+    public void purge() {
+        LocalDateTime deletedBefore = LocalDateTime.now().minus(after);
+        try {
+            int count;
+            do {
+                if (!isLightLoad()) {
+                    return;
+                }
+                count = purgeBatch(deletedBefore);
+            } while (count == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Device purge failed, retrying on the next run", e);
+        }
+    }
+
+    /**
+     * Purges one batch.
+     *
+     * @param deletedBefore the time devices must have been deleted before
+     * @return the number of devices purged
+     */
+    int purgeBatch(LocalDateTime deletedBefore) {
+        Integer count = transaction.execute(status -> repository.purgeDeleted(deletedBefore, batchSize));
+        purged.increment(count);
+        return count;
+    }
+
+    /**
+     * Whether few enough requests are in flight to purge; always true without load shedding.
+     */
+    boolean isLightLoad() {
+        AdaptiveConcurrencyLimiter current = limiter.getIfAvailable();
+        return current == null || current.getInFlight() < current.getLimit() * maxLoad;
+    }
+}
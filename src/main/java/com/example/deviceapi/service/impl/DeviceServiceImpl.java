@@ -1,94 +1,463 @@
 
 package com.example.deviceapi.service.impl;
 
+import com.example.deviceapi.config.CacheConfig;
+import com.example.deviceapi.config.ReadYourWrites;
+import com.example.deviceapi.dto.DeviceBatchItemDTO;
+import com.example.deviceapi.dto.DeviceBatchRequestDTO;
+import com.example.deviceapi.dto.DeviceBatchResponseDTO;
+import com.example.deviceapi.dto.DeviceBatchUpdateDTO;
+import com.example.deviceapi.dto.DevicePageDTO;
 import com.example.deviceapi.dto.DeviceRequestDTO;
 import com.example.deviceapi.dto.DeviceResponseDTO;
+import com.example.deviceapi.dto.DeviceSearchDTO;
+import com.example.deviceapi.dto.DeviceStatsDTO;
 import com.example.deviceapi.entity.Device;
 import com.example.deviceapi.entity.DeviceState;
+import com.example.deviceapi.exception.AbstractCustomThrowableProblem;
 import com.example.deviceapi.exception.DeviceInUseException;
 import com.example.deviceapi.exception.DeviceNotFoundException;
+import com.example.deviceapi.exception.DeviceStateConflictException;
+import com.example.deviceapi.exception.DeviceVersionMismatchException;
+import com.example.deviceapi.exception.InvalidSearchException;
 import com.example.deviceapi.mapper.DeviceMapper;
+import com.example.deviceapi.repository.DeviceChange;
 import com.example.deviceapi.repository.DeviceRepository;
+import com.example.deviceapi.repository.DeviceSpecifications;
+import com.example.deviceapi.service.DeviceChangedEvent;
+import com.example.deviceapi.service.DeviceNameIndex;
 import com.example.deviceapi.service.DeviceService;
+import jakarta.persistence.EntityManager;
 import lombok.AllArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.zalando.problem.Status;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * Implementation of device business rules.
+ *
+ * Reads by ID go through the {@value CacheConfig#DEVICES_CACHE} cache; every operation changing an existing
+ * device evicts it. They always read the primary database, so that the cache never holds a lagging replica's
+ * copy, and skip the cache when {@link ReadYourWrites} is required. Every change publishes a {@link DeviceChangedEvent}.
  */
 @Service
+@Profile("!reactive")
 @AllArgsConstructor
 public class DeviceServiceImpl implements DeviceService {
 
+    /**
+     * Number of new devices flushed at a time; matches {@code hibernate.jdbc.batch_size}.
+     */
+    private static final int FLUSH_SIZE = 50;
+
+    /**
+     * Number of devices marked deleted per transaction by {@link #deleteAll}.
+     */
+    private static final int DELETE_BATCH_SIZE = 1000;
+
+    private static final String IN_USE_UPDATE_DETAIL = "Device is in use and cannot be fully updated";
+    static final String IN_USE_DELETE_DETAIL = "In-use devices cannot be deleted.";
+    private static final String NOT_FOUND_DETAIL = "Device not found";
+    private static final String CHECKOUT_DETAIL = "Only available devices can be checked out";
+    private static final String CHECKIN_DETAIL = "Only in-use devices can be checked in";
+    private static final String NONE_AVAILABLE_DETAIL = "No device of the brand is available";
+
+    /**
+     * Device properties a search can return and sort by.
+     */
+    static final List<String> SEARCH_PROPERTIES = List.of("id", "name", "brand", "state", "creationTime", "version");
+
     private  DeviceRepository repository;
     private  DeviceMapper mapper;
+    private  EntityManager entityManager;
+    private  ApplicationEventPublisher events;
+    private  DeviceInventory inventory;
+    private  DeviceNameIndex nameIndex;
+    private  PlatformTransactionManager transactionManager;
+    private  CacheManager cacheManager;
 
     @Override
+    @Transactional
     public DeviceResponseDTO create(DeviceRequestDTO request) {
-        Device device = mapper.toEntity(request);
-        device.setCreationTime(LocalDateTime.now());
-        return mapper.toDTO(repository.save(device));
+        DeviceResponseDTO device = mapper.toDTO(repository.save(newDevice(request)));
+        events.publishEvent(DeviceChangedEvent.created(device));
+        return device;
     }
 
     @Override
     @Transactional
-    public DeviceResponseDTO update(Long id, DeviceRequestDTO request) {
-        Device device = validateDeviceForUpdate(id, request);
-        mapper.update(request, device);
-        return mapper.toDTO(device);
+    @CacheEvict(cacheNames = CacheConfig.DEVICES_CACHE, allEntries = true,
+            condition = "!#request.update().isEmpty() || !#request.delete().isEmpty()")
+    public DeviceBatchResponseDTO batch(DeviceBatchRequestDTO request) {
+        List<DeviceBatchItemDTO> created = createAll(request.create());
+
+        List<DeviceBatchItemDTO> updated = new ArrayList<>(request.update().size());
+        for (DeviceBatchUpdateDTO update : request.update()) {
+            updated.add(applyUpdate(update));
+        }
+
+        List<DeviceBatchItemDTO> deleted = new ArrayList<>(request.delete().size());
+        for (Long id : request.delete()) {
+            deleted.add(applyDelete(id));
+        }
+
+        return new DeviceBatchResponseDTO(created, updated, deleted);
     }
 
     @Override
     @Transactional
-    public DeviceResponseDTO partialUpdate(Long id, DeviceRequestDTO request) {
-        Device device = validateDeviceForUpdate(id, request);
-        mapper.update(request, device);
-        return mapper.toDTO(device);
+    @CacheEvict(cacheNames = CacheConfig.DEVICES_CACHE, key = "#id")
+    public DeviceResponseDTO update(Long id, DeviceRequestDTO request, List<Long> expectedVersions) {
+        return updateUnlessLocked(id, request, expectedVersions);
     }
 
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.DEVICES_CACHE, key = "#id")
+    public DeviceResponseDTO partialUpdate(Long id, DeviceRequestDTO request, List<Long> expectedVersions) {
+        return updateUnlessLocked(id, request, expectedVersions);
+    }
 
     @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.DEVICES_CACHE, key = "#id")
+    public DeviceResponseDTO checkout(Long id) {
+        return transition(id, DeviceState.AVAILABLE, DeviceState.IN_USE, CHECKOUT_DETAIL);
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.DEVICES_CACHE, key = "#id")
+    public DeviceResponseDTO checkin(Long id) {
+        return transition(id, DeviceState.IN_USE, DeviceState.AVAILABLE, CHECKIN_DETAIL);
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.DEVICES_CACHE, key = "#result.id()")
+    public DeviceResponseDTO checkoutAny(String brand) {
+        return changed(repository.claimAvailable(brand)
+                .orElseThrow(() -> new DeviceStateConflictException(NONE_AVAILABLE_DETAIL)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.DEVICES_CACHE, key = "#id", sync = true,
+            condition = "!T(com.example.deviceapi.config.ReadYourWrites).isRequired()")
     public DeviceResponseDTO findById(Long id) {
-        return mapper.toDTO(getDeviceOrThrow(id));
+        return ReadYourWrites.onPrimary(() -> mapper.toDTO(getDeviceOrThrow(id)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public DevicePageDTO findAll(String after, int limit, boolean includeArchived) {
+        int size = pageSize(limit);
+        long id = DeviceCursor.decode(after);
+        return toPage(includeArchived
+                ? repository.findByIdGreaterThanOrderByIdAsc(id, Limit.of(size + 1))
+                : repository.findByArchivedFalseAndIdGreaterThanOrderByIdAsc(id, Limit.of(size + 1)), size, mapper);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public DevicePageDTO findByBrand(String brand, String after, int limit, boolean includeArchived) {
+        int size = pageSize(limit);
+        long id = DeviceCursor.decode(after);
+        return toPage(includeArchived
+                ? repository.findByBrandAndIdGreaterThanOrderByIdAsc(brand, id, Limit.of(size + 1))
+                : repository.findByArchivedFalseAndBrandAndIdGreaterThanOrderByIdAsc(brand, id, Limit.of(size + 1)), size, mapper);
     }
 
     @Override
-    public List<DeviceResponseDTO> findAll() {
-        return repository.findAll().stream().map(mapper::toDTO).toList();
+    @Transactional(readOnly = true)
+    public DevicePageDTO findByState(DeviceState state, String after, int limit, boolean includeArchived) {
+        int size = pageSize(limit);
+        long id = DeviceCursor.decode(after);
+        return toPage(includeArchived
+                ? repository.findByStateAndIdGreaterThanOrderByIdAsc(state, id, Limit.of(size + 1))
+                : repository.findByArchivedFalseAndStateAndIdGreaterThanOrderByIdAsc(state, id, Limit.of(size + 1)), size, mapper);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> search(DeviceSearchDTO criteria) {
+        Specification<Device> specification = Specification.allOf(
+                DeviceSpecifications.hasBrand(criteria.brand()),
+                DeviceSpecifications.hasState(criteria.state()),
+                DeviceSpecifications.nameStartsWith(criteria.namePrefix()),
+                DeviceSpecifications.createdFrom(criteria.createdFrom()),
+                DeviceSpecifications.createdBefore(criteria.createdTo()),
+                DeviceSpecifications.notArchived(criteria.includeArchived()));
+        return repository.search(specification, searchProperties(criteria.fields()), searchSort(criteria.sort()),
+                pageSize(criteria.limit()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<DeviceResponseDTO> searchByName(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        return nameIndex.search(query.trim(), pageSize(limit));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<DeviceResponseDTO> sink) {
+        try (Stream<Device> devices = repository.streamAllByOrderByIdAsc()) {
+            devices.forEach(device -> {
+                DeviceResponseDTO dto = mapper.toDTO(device);
+                entityManager.detach(device);
+                sink.accept(dto);
+            });
+        }
     }
 
     @Override
-    public List<DeviceResponseDTO> findByBrand(String brand) {
-        return repository.findByBrand(brand).stream().map(mapper::toDTO).toList();
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.DEVICES_CACHE, key = "#id")
+    public void delete(Long id, List<Long> expectedVersions) {
+        DeviceChange change = atAnyOf(expectedVersions, version -> repository.deleteUnlessInUse(id, version))
+                .orElseThrow(() -> writeFailure(id, expectedVersions, new DeviceInUseException(IN_USE_DELETE_DETAIL)));
+        events.publishEvent(DeviceChangedEvent.deleted(mapper.toResponse(change)));
     }
 
+    /**
+     * Marks the devices in batches of {@link #DELETE_BATCH_SIZE}, each in its own transaction skipping the devices
+     * locked by concurrent writes, and evicts each batch from the cache once it is committed, so that a large
+     * cleanup neither holds locks nor empties the cache for long.
+     */
     @Override
-    public List<DeviceResponseDTO> findByState(DeviceState state) {
-        return repository.findByState(state).stream().map(mapper::toDTO).toList();
+    public int deleteAll(DeviceState state, LocalDateTime createdBefore) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Cache cache = cacheManager.getCache(CacheConfig.DEVICES_CACHE);
+        int total = 0;
+        List<Long> ids;
+        do {
+            ids = transaction.execute(status -> {
+                List<DeviceChange> changes =
+                        repository.deleteAllUnlessInUse(state.name(), createdBefore, DELETE_BATCH_SIZE);
+                for (DeviceChange change : changes) {
+                    events.publishEvent(DeviceChangedEvent.deleted(mapper.toResponse(change)));
+                }
+                return changes.stream().map(DeviceChange::getId).toList();
+            });
+            if (cache != null) {
+                ids.forEach(cache::evict);
+            }
+            total += ids.size();
+        } while (ids.size() == DELETE_BATCH_SIZE);
+        return total;
     }
 
     @Override
-    public void delete(Long id) {
-        Device device = getDeviceOrThrow(id);
-        if (device.getState() == DeviceState.IN_USE) {
-            throw new DeviceInUseException("In-use devices cannot be deleted.");
+    public DeviceStatsDTO stats() {
+        return inventory.snapshot();
+    }
+
+    private Device newDevice(DeviceRequestDTO request) {
+        Device device = mapper.toEntity(request);
+        device.setCreationTime(LocalDateTime.now());
+        return device;
+    }
+
+    /**
+     * Inserts the devices in chunks of {@link #FLUSH_SIZE}, clearing the persistence context after each chunk
+     * so that large batches neither grow the session nor get dirty-checked at commit.
+     */
+    private List<DeviceBatchItemDTO> createAll(List<DeviceRequestDTO> requests) {
+        List<DeviceBatchItemDTO> results = new ArrayList<>(requests.size());
+        for (int from = 0; from < requests.size(); from += FLUSH_SIZE) {
+            List<Device> chunk = requests.subList(from, Math.min(from + FLUSH_SIZE, requests.size())).stream()
+                    .map(this::newDevice)
+                    .toList();
+            repository.saveAll(chunk);
+            for (Device device : chunk) {
+                DeviceResponseDTO dto = mapper.toDTO(device);
+                events.publishEvent(DeviceChangedEvent.created(dto));
+                results.add(new DeviceBatchItemDTO(device.getId(), Status.CREATED.getStatusCode(), dto, null));
+            }
+            // Listeners may persist too (the outbox), so flush only once the chunk's events are out.
+            entityManager.flush();
+            entityManager.clear();
         }
-        repository.delete(device);
+        return results;
+    }
+
+    /**
+     * Applies one batch update with the same conditional statement as a single update, so that a device checked out
+     * or deleted concurrently fails only its own item instead of the whole batch.
+     */
+    private DeviceBatchItemDTO applyUpdate(DeviceBatchUpdateDTO update) {
+        return repository.updateUnlessLocked(update.id(), update.name(), update.brand(), update.state().name(), null)
+                .map(change -> new DeviceBatchItemDTO(update.id(), Status.OK.getStatusCode(), changed(change), null))
+                .orElseGet(() -> miss(update.id(), IN_USE_UPDATE_DETAIL));
+    }
+
+    private DeviceBatchItemDTO applyDelete(Long id) {
+        return repository.deleteUnlessInUse(id, null)
+                .map(change -> {
+                    events.publishEvent(DeviceChangedEvent.deleted(mapper.toResponse(change)));
+                    return new DeviceBatchItemDTO(id, Status.NO_CONTENT.getStatusCode(), null, null);
+                })
+                .orElseGet(() -> miss(id, IN_USE_DELETE_DETAIL));
+    }
+
+    /**
+     * Explains why a conditional batch write affected no row.
+     */
+    private DeviceBatchItemDTO miss(Long id, String inUseDetail) {
+        return repository.existsById(id)
+                ? failure(id, Status.CONFLICT, inUseDetail)
+                : failure(id, Status.NOT_FOUND, NOT_FOUND_DETAIL);
+    }
+
+    private static DeviceBatchItemDTO failure(Long id, Status status, String detail) {
+        return new DeviceBatchItemDTO(id, status.getStatusCode(), null, detail);
+    }
+
+    static List<String> searchProperties(List<String> fields) {
+        if (fields.isEmpty()) {
+            return SEARCH_PROPERTIES;
+        }
+        for (String field : fields) {
+            checkSearchProperty(field);
+        }
+        return fields.stream().distinct().toList();
+    }
+
+    /**
+     * Parses {@code property[,asc|desc]}; ties are broken by ID so that the order is stable.
+     */
+    static Sort searchSort(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return Sort.by("id");
+        }
+        String[] parts = sort.split(",", 2);
+        String property = parts[0].trim();
+        checkSearchProperty(property);
+        Sort.Direction direction;
+        try {
+            direction = parts.length == 1 ? Sort.Direction.ASC : Sort.Direction.fromString(parts[1].trim());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidSearchException("Unknown sort direction: " + parts[1].trim());
+        }
+        Sort order = Sort.by(direction, property);
+        return property.equals("id") ? order : order.and(Sort.by("id"));
+    }
+
+    private static void checkSearchProperty(String property) {
+        if (!SEARCH_PROPERTIES.contains(property)) {
+            throw new InvalidSearchException("Unknown device property: " + property);
+        }
+    }
+
+    static int pageSize(int limit) {
+        return Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Builds a page from a result fetched with one extra row, which only signals that a next page exists.
+     */
+    static DevicePageDTO toPage(List<Device> devices, int size, DeviceMapper mapper) {
+        boolean hasNext = devices.size() > size;
+        List<Device> page = hasNext ? devices.subList(0, size) : devices;
+        String nextCursor = hasNext ? DeviceCursor.encode(page.get(size - 1).getId()) : null;
+        return new DevicePageDTO(page.stream().map(mapper::toDTO).toList(), nextCursor);
     }
 
     private Device getDeviceOrThrow(Long id) {
         return repository.findById(id).orElseThrow(DeviceNotFoundException::new);
     }
-    private Device validateDeviceForUpdate(Long id, DeviceRequestDTO request) {
-        Device device = getDeviceOrThrow(id);
-        if (device.getState() == DeviceState.IN_USE &&
-                (!device.getName().equals(request.name()) || !device.getBrand().equals(request.brand()))) {
-            throw new DeviceInUseException();
+
+    /**
+     * Applies the update with a single conditional statement; only when no row matched is the device
+     * looked up again, to report it as missing, modified or in use.
+     */
+    private DeviceResponseDTO updateUnlessLocked(Long id, DeviceRequestDTO request, List<Long> expectedVersions) {
+        String state = request.state() == null ? null : request.state().name();
+        return changed(atAnyOf(expectedVersions,
+                version -> repository.updateUnlessLocked(id, request.name(), request.brand(), state, version))
+                .orElseThrow(() -> writeFailure(id, expectedVersions, new DeviceInUseException())));
+    }
+
+    /**
+     * Runs a conditional write for each expected version until one matches; a device is at a single version, so
+     * at most one can. No expected version runs the write for any version.
+     */
+    private static Optional<DeviceChange> atAnyOf(List<Long> expectedVersions,
+                                                  Function<Long, Optional<DeviceChange>> write) {
+        if (expectedVersions == null || expectedVersions.isEmpty()) {
+            return write.apply(null);
         }
+        for (Long version : expectedVersions) {
+            Optional<DeviceChange> change = write.apply(version);
+            if (change.isPresent()) {
+                return change;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Moves the device between states with a single compare-and-set statement.
+     */
+    private DeviceResponseDTO transition(Long id, DeviceState from, DeviceState to, String conflictDetail) {
+        return changed(repository.transition(id, from.name(), to.name())
+                .orElseThrow(() -> {
+                    getDeviceOrThrow(id);
+                    return new DeviceStateConflictException(conflictDetail);
+                }));
+    }
+
+    private DeviceResponseDTO changed(DeviceChange change) {
+        DeviceResponseDTO device = mapper.toResponse(change);
+        events.publishEvent(DeviceChangedEvent.updated(device, change.getPreviousBrand(), change.getPreviousState()));
         return device;
     }
+
+    /**
+     * Explains why a conditional write affected no row. A missing device fails any version condition, even one
+     * accepting any version, as there is no version to match.
+     */
+    private AbstractCustomThrowableProblem writeFailure(Long id, List<Long> expectedVersions,
+                                                        DeviceInUseException inUse) {
+        Optional<Device> device = repository.findById(id);
+        if (device.isEmpty()) {
+            return expectedVersions == null ? new DeviceNotFoundException() : new DeviceVersionMismatchException();
+        }
+        if (expectedVersions != null && !expectedVersions.isEmpty()
+                && !expectedVersions.contains(device.get().getVersion())) {
+            return new DeviceVersionMismatchException();
+        }
+        return inUse;
+    }
+
+    /**
+     * In-use devices keep their name and brand; any other change is allowed.
+     */
+    static boolean isLockedChange(Device device, DeviceRequestDTO request) {
+        return device.getState() == DeviceState.IN_USE &&
+                (!device.getName().equals(request.name()) || !device.getBrand().equals(request.brand()));
+    }
 }
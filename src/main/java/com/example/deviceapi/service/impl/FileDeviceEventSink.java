@@ -0,0 +1,44 @@
+package com.example.deviceapi.service.impl;
+
+import com.example.deviceapi.entity.DeviceOutboxEvent;
+import com.example.deviceapi.service.DeviceEventSink;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Sink appending each relayed change as a line of JSON to a local file, for development and tests.
+ *
+ * Enabled by {@code device-api.outbox.sink=file}, the default; other sinks are registered under another value.
+ */
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "device-api.outbox.sink", havingValue = "file", matchIfMissing = true)
+public class FileDeviceEventSink implements DeviceEventSink {
+
+    private final Path file;
+
+    public FileDeviceEventSink(@Value("${device-api.outbox.file}") Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public synchronized void deliver(List<DeviceOutboxEvent> events) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (DeviceOutboxEvent event : events) {
+                writer.write(event.getPayload());
+                writer.write('\n');
+            }
+        }
+    }
+}
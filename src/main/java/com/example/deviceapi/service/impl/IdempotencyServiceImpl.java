@@ -0,0 +1,159 @@
+package com.example.deviceapi.service.impl;
+
+import com.example.deviceapi.config.ClientIdentity;
+import com.example.deviceapi.exception.IdempotencyKeyInProgressException;
+import com.example.deviceapi.exception.IdempotencyKeyReusedException;
+import com.example.deviceapi.service.IdempotencyService;
+import com.example.deviceapi.service.IdempotencyStore;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency service recording responses in an {@link IdempotencyStore}.
+ *
+ * Keys are scoped by the {@link ClientIdentity} of the request and the operation, so that clients cannot read each
+ * other's responses by guessing their keys. Concurrent requests with the same key on this instance are coalesced
+ * in memory, so only the first one reaches the store and the operation; the store reservation guards against
+ * duplicates running on other instances. Failed requests are not recorded, so that they can be retried with the
+ * same key.
+ */
+@Service
+@Profile("!reactive")
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private final IdempotencyStore store;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter writer;
+    private final Duration ttl;
+    private final Duration lease;
+    private final ConcurrentMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyServiceImpl(IdempotencyStore store, ObjectMapper objectMapper,
+                                  @Value("${device-api.idempotency.ttl}") Duration ttl,
+                                  @Value("${device-api.idempotency.lease}") Duration lease) {
+        this.store = store;
+        this.objectMapper = objectMapper;
+        this.writer = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        this.ttl = ttl;
+        this.lease = lease;
+    }
+
+    @Override
+    public <T> T execute(String key, String operation, Object request, Class<T> responseType, Supplier<T> action) {
+        if (key == null) {
+            return action.get();
+        }
+        String scopedKey = ClientIdentity.current() + ":" + operation + ":" + key;
+        String fingerprint = fingerprint(request);
+
+        InFlight mine = new InFlight(fingerprint, new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(scopedKey, mine);
+        if (running != null) {
+            checkFingerprint(key, running.fingerprint(), fingerprint);
+            return read(await(running.response()), responseType);
+        }
+        try {
+            String response = replayOrRun(key, scopedKey, fingerprint, action);
+            mine.response().complete(response);
+            return read(response, responseType);
+        } catch (RuntimeException e) {
+            mine.response().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(scopedKey, mine);
+        }
+    }
+
+    private String replayOrRun(String key, String scopedKey, String fingerprint, Supplier<?> action) {
+        Optional<String> replay = replay(key, scopedKey, fingerprint);
+        if (replay.isPresent()) {
+            return replay.get();
+        }
+        if (!store.reserve(scopedKey, fingerprint, lease)) {
+            // Taken by another instance since the lookup
+            return replay(key, scopedKey, fingerprint).orElseThrow(() -> new IdempotencyKeyInProgressException(key));
+        }
+        try {
+            return store.runAndComplete(scopedKey, () -> write(action.get()), ttl);
+        } catch (RuntimeException e) {
+            store.release(scopedKey);
+            throw e;
+        }
+    }
+
+    private Optional<String> replay(String key, String scopedKey, String fingerprint) {
+        Optional<IdempotencyStore.Entry> entry = store.find(scopedKey);
+        if (entry.isEmpty()) {
+            return Optional.empty();
+        }
+        checkFingerprint(key, entry.get().fingerprint(), fingerprint);
+        if (entry.get().response() == null) {
+            throw new IdempotencyKeyInProgressException(key);
+        }
+        return Optional.of(entry.get().response());
+    }
+
+    private static void checkFingerprint(String key, String expected, String actual) {
+        if (!expected.equals(actual)) {
+            throw new IdempotencyKeyReusedException(key);
+        }
+    }
+
+    private static String await(CompletableFuture<String> response) {
+        try {
+            return response.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(writer.writeValueAsBytes(request)));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String write(Object response) {
+        try {
+            return writer.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private <T> T read(String response, Class<T> responseType) {
+        try {
+            return objectMapper.readValue(response, responseType);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record InFlight(String fingerprint, CompletableFuture<String> response) {
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.deviceapi.service.impl;
+
+import com.example.deviceapi.dto.DeviceResponseDTO;
+import com.example.deviceapi.entity.Device;
+import com.example.deviceapi.mapper.DeviceMapper;
+import com.example.deviceapi.repository.DeviceRepository;
+import com.example.deviceapi.service.DeviceChangedEvent;
+import com.example.deviceapi.service.DeviceNameIndex;
+import com.example.deviceapi.service.DevicesArchivedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Name index kept in memory as an inverted index from trigram to device IDs, which answers without the
+ * database and its {@code pg_trgm} index, for tests and small inventories.
+ *
+ * Trigrams are extracted like {@code pg_trgm} does and a name matches when it holds at least
+ * {@value #THRESHOLD} of the query's trigrams, the default {@code pg_trgm.word_similarity_threshold}.
+ * Loaded from the devices not archived at startup and kept up to date by committed changes and archivals.
+ * Enabled by {@code device-api.name-search.index=memory}.
+ */
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "device-api.name-search.index", havingValue = "memory")
+@RequiredArgsConstructor
+public class InMemoryDeviceNameIndex implements DeviceNameIndex {
+
+    static final double THRESHOLD = 0.6;
+
+    private final DeviceRepository repository;
+    private final DeviceMapper mapper;
+    private final Map<Long, DeviceResponseDTO> devices = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+
+    /**
+     * Indexes every device of the table that is not archived.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        try (Stream<Device> stream = repository.streamAllByOrderByIdAsc()) {
+            stream.filter(device -> !device.isArchived()).forEach(device -> add(mapper.toDTO(device)));
+        }
+    }
+
+    /**
+     * Applies a committed change to the index.
+     *
+     * @param event the change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeviceChanged(DeviceChangedEvent event) {
+        if (event.type() == DeviceChangedEvent.Type.DELETED) {
+            remove(event.device().id());
+        } else {
+            add(event.device());
+        }
+    }
+
+    /**
+     * Drops a committed batch of archived devices from the index.
+     *
+     * @param event the archival
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDevicesArchived(DevicesArchivedEvent event) {
+        event.ids().forEach(this::remove);
+    }
+
+    @Override
+    public List<DeviceResponseDTO> search(String query, int limit) {
+        Set<String> queryTrigrams = trigrams(query);
+        if (queryTrigrams.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Integer> shared = new HashMap<>();
+        for (String trigram : queryTrigrams) {
+            for (Long id : postings.getOrDefault(trigram, Set.of())) {
+                shared.merge(id, 1, Integer::sum);
+            }
+        }
+        int required = (int) Math.ceil(THRESHOLD * queryTrigrams.size());
+        return shared.entrySet().stream()
+                .filter(entry -> entry.getValue() >= required)
+                .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(entry -> devices.get(entry.getKey()))
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private synchronized void add(DeviceResponseDTO device) {
+        remove(device.id());
+        devices.put(device.id(), device);
+        for (String trigram : trigrams(device.name())) {
+            postings.computeIfAbsent(trigram, key -> ConcurrentHashMap.newKeySet()).add(device.id());
+        }
+    }
+
+    private synchronized void remove(Long id) {
+        DeviceResponseDTO device = devices.remove(id);
+        if (device != null) {
+            for (String trigram : trigrams(device.name())) {
+                Set<Long> ids = postings.get(trigram);
+                if (ids != null) {
+                    ids.remove(id);
+                }
+            }
+        }
+    }
+
+    /**
+     * Trigrams of a text as {@code pg_trgm} extracts them: from each lower-cased alphanumeric word,
+     * padded with two spaces in front and one behind.
+     */
+    static Set<String> trigrams(String text) {
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(padded.substring(i, i + 3));
+            }
+        }
+        return trigrams;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.deviceapi.service.impl;
+
+import com.example.deviceapi.service.IdempotencyStore;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Idempotency store holding the keys of this instance in a bounded Caffeine cache.
+ *
+ * Enabled by {@code device-api.idempotency.store=memory}, the default. When the cache is full the least valuable
+ * keys are evicted before they expire, after which their requests run again.
+ */
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "device-api.idempotency.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final Cache<String, Stored> keys;
+
+    public InMemoryIdempotencyStore(@Value("${device-api.idempotency.maximum-size}") long maximumSize,
+                                    @Value("${device-api.idempotency.ttl}") Duration ttl) {
+        this.keys = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    @Override
+    public Optional<Entry> find(String key) {
+        Stored stored = keys.getIfPresent(key);
+        return stored == null || stored.isExpired() ? Optional.empty() : Optional.of(stored.entry());
+    }
+
+    @Override
+    public boolean reserve(String key, String fingerprint, Duration lease) {
+        Stored reservation = new Stored(new Entry(fingerprint, null), Instant.now().plus(lease));
+        return keys.asMap().compute(key, (k, stored) -> stored == null || stored.isExpired() ? reservation : stored)
+                == reservation;
+    }
+
+    @Override
+    public void complete(String key, String response, Duration ttl) {
+        keys.asMap().computeIfPresent(key, (k, stored) ->
+                new Stored(new Entry(stored.entry().fingerprint(), response), Instant.now().plus(ttl)));
+    }
+
+    @Override
+    public void release(String key) {
+        keys.invalidate(key);
+    }
+
+    private record Stored(Entry entry, Instant expiresAt) {
+
+        boolean isExpired() {
+            return expiresAt.isBefore(Instant.now());
+        }
+    }
+}
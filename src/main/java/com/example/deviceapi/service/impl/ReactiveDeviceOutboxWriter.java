@@ -0,0 +1,51 @@
+package com.example.deviceapi.service.impl;
+
+import com.example.deviceapi.service.DeviceChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Writes device changes of the reactive profile to the outbox, like {@link DeviceOutboxWriter} does for JPA.
+ *
+ * The insert joins the R2DBC transaction of the change, so the outbox holds exactly the committed changes;
+ * IDs are taken from the outbox sequence as is, which the JPA pooled optimizer never hands out.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveDeviceOutboxWriter {
+
+    private final DatabaseClient client;
+    private final ObjectWriter writer;
+
+    public ReactiveDeviceOutboxWriter(DatabaseClient client, ObjectMapper objectMapper) {
+        this.client = client;
+        this.writer = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    /**
+     * Adds a change to the outbox.
+     *
+     * @param event the change
+     * @return completes once the row is inserted
+     */
+    public Mono<Void> write(DeviceChangedEvent event) {
+        return Mono.fromCallable(() -> writer.writeValueAsString(event))
+                .onErrorMap(JsonProcessingException.class, e -> new IllegalStateException("Unserializable change", e))
+                .flatMap(payload -> client.sql("""
+                                INSERT INTO device_outbox (id, type, device_id, payload, created_at)
+                                VALUES (nextval('device_outbox_seq'), :type, :deviceId, CAST(:payload AS JSONB), :createdAt)""")
+                        .bind("type", event.type().name())
+                        .bind("deviceId", event.device().id())
+                        .bind("payload", payload)
+                        .bind("createdAt", LocalDateTime.now())
+                        .then());
+    }
+}
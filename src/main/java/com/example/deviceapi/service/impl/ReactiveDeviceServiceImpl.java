@@ -0,0 +1,140 @@
+
+package com.example.deviceapi.service.impl;
+
+import com.example.deviceapi.dto.DevicePageDTO;
+import com.example.deviceapi.dto.DeviceRequestDTO;
+import com.example.deviceapi.dto.DeviceResponseDTO;
+import com.example.deviceapi.entity.Device;
+import com.example.deviceapi.entity.DeviceState;
+import com.example.deviceapi.exception.DeviceInUseException;
+import com.example.deviceapi.exception.DeviceNotFoundException;
+import com.example.deviceapi.mapper.DeviceMapper;
+import com.example.deviceapi.repository.ReactiveDeviceRepository;
+import com.example.deviceapi.service.DeviceChangedEvent;
+import com.example.deviceapi.service.ReactiveDeviceService;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reactive implementation of device business rules, on R2DBC.
+ *
+ * Every change is written to the outbox in its transaction; the change feed, the stats and the in-memory name index,
+ * fed by application events on the default stack, are not available here.
+ */
+@Service
+@Profile("reactive")
+@AllArgsConstructor
+public class ReactiveDeviceServiceImpl implements ReactiveDeviceService {
+
+    private  ReactiveDeviceRepository repository;
+    private  R2dbcEntityTemplate template;
+    private  DeviceMapper mapper;
+    private  ReactiveDeviceOutboxWriter outbox;
+
+    @Override
+    @Transactional
+    public Mono<DeviceResponseDTO> create(DeviceRequestDTO request) {
+        return repository.nextId()
+                .flatMap(id -> {
+                    Device device = mapper.toEntity(request);
+                    device.setId(id);
+                    device.setCreationTime(LocalDateTime.now());
+                    return template.insert(device);
+                })
+                .map(mapper::toDTO)
+                .flatMap(device -> outbox.write(DeviceChangedEvent.created(device)).thenReturn(device));
+    }
+
+    @Override
+    @Transactional
+    public Mono<DeviceResponseDTO> update(Long id, DeviceRequestDTO request) {
+        return validateDeviceForUpdate(id, request)
+                .flatMap(device -> {
+                    String previousBrand = device.getBrand();
+                    DeviceState previousState = device.getState();
+                    mapper.update(request, device);
+                    return repository.save(device)
+                            .map(mapper::toDTO)
+                            .flatMap(saved -> outbox.write(
+                                    DeviceChangedEvent.updated(saved, previousBrand, previousState)).thenReturn(saved));
+                });
+    }
+
+    @Override
+    @Transactional
+    public Mono<DeviceResponseDTO> partialUpdate(Long id, DeviceRequestDTO request) {
+        return update(id, request);
+    }
+
+    @Override
+    public Mono<DeviceResponseDTO> findById(Long id) {
+        return getDeviceOrError(id).map(mapper::toDTO);
+    }
+
+    @Override
+    public Mono<DevicePageDTO> findAll(String after, int limit) {
+        int size = DeviceServiceImpl.pageSize(limit);
+        return Mono.fromCallable(() -> DeviceCursor.decode(after))
+                .flatMapMany(id -> repository.findPage(id, size + 1))
+                .collectList()
+                .map(devices -> DeviceServiceImpl.toPage(devices, size, mapper));
+    }
+
+    @Override
+    public Mono<DevicePageDTO> findByBrand(String brand, String after, int limit) {
+        int size = DeviceServiceImpl.pageSize(limit);
+        return Mono.fromCallable(() -> DeviceCursor.decode(after))
+                .flatMapMany(id -> repository.findPageByBrand(brand, id, size + 1))
+                .collectList()
+                .map(devices -> DeviceServiceImpl.toPage(devices, size, mapper));
+    }
+
+    @Override
+    public Mono<DevicePageDTO> findByState(DeviceState state, String after, int limit) {
+        int size = DeviceServiceImpl.pageSize(limit);
+        return Mono.fromCallable(() -> DeviceCursor.decode(after))
+                .flatMapMany(id -> repository.findPageByState(state.name(), id, size + 1))
+                .collectList()
+                .map(devices -> DeviceServiceImpl.toPage(devices, size, mapper));
+    }
+
+    @Override
+    public Flux<DeviceResponseDTO> exportAll() {
+        return repository.streamAll().map(mapper::toDTO);
+    }
+
+    @Override
+    @Transactional
+    public Mono<Void> delete(Long id) {
+        return getDeviceOrError(id)
+                .flatMap(device -> device.getState() == DeviceState.IN_USE
+                        ? inUseDeleteError()
+                        : repository.markDeleted(id)
+                                // No row when the device was checked out or deleted since it was read
+                                .flatMap(deleted -> deleted == 0
+                                        ? inUseDeleteError()
+                                        : outbox.write(DeviceChangedEvent.deleted(mapper.toDTO(device)))));
+    }
+
+    private static Mono<Void> inUseDeleteError() {
+        return Mono.error(new DeviceInUseException(DeviceServiceImpl.IN_USE_DELETE_DETAIL));
+    }
+
+    private Mono<Device> getDeviceOrError(Long id) {
+        return repository.findById(id).switchIfEmpty(Mono.error(DeviceNotFoundException::new));
+    }
+
+    private Mono<Device> validateDeviceForUpdate(Long id, DeviceRequestDTO request) {
+        return getDeviceOrError(id)
+                .flatMap(device -> DeviceServiceImpl.isLockedChange(device, request)
+                        ? Mono.<Device>error(new DeviceInUseException())
+                        : Mono.just(device));
+    }
+}
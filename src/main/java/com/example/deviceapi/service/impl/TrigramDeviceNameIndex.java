@@ -0,0 +1,32 @@
+package com.example.deviceapi.service.impl;
+
+import com.example.deviceapi.dto.DeviceResponseDTO;
+import com.example.deviceapi.mapper.DeviceMapper;
+import com.example.deviceapi.repository.DeviceRepository;
+import com.example.deviceapi.service.DeviceNameIndex;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Name index backed by the {@code pg_trgm} GIN index of the device table.
+ *
+ * Enabled by {@code device-api.name-search.index=database}, the default.
+ */
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "device-api.name-search.index", havingValue = "database", matchIfMissing = true)
+@AllArgsConstructor
+public class TrigramDeviceNameIndex implements DeviceNameIndex {
+
+    private DeviceRepository repository;
+    private DeviceMapper mapper;
+
+    @Override
+    public List<DeviceResponseDTO> search(String query, int limit) {
+        return repository.searchByName(query, limit).stream().map(mapper::toDTO).toList();
+    }
+}
@@ -0,0 +1,63 @@
+-- Device table split by the archived flag into a hot partition, read by the list queries, and an archive partition
+-- holding the long-inactive devices moved there by the archiver, so the list indexes stop growing with retired devices.
+-- The primary key must hold the partition key; IDs stay unique through device_seq.
+-- The table is rewritten under an exclusive lock in this migration's transaction: indexes of a partitioned table
+-- cannot be built concurrently, but they are built before any query sees the new table.
+
+ALTER TABLE device RENAME TO device_unpartitioned;
+
+ALTER INDEX device_pkey RENAME TO device_unpartitioned_pkey;
+
+CREATE TABLE device (
+    id            BIGINT       NOT NULL,
+    name          VARCHAR(255) NOT NULL,
+    brand         VARCHAR(255) NOT NULL,
+    state         VARCHAR(255) NOT NULL CHECK (state IN ('AVAILABLE', 'IN_USE', 'INACTIVE')),
+    creation_time TIMESTAMP(6) NOT NULL,
+    version       BIGINT       NOT NULL DEFAULT 0,
+    archived      BOOLEAN      NOT NULL DEFAULT false,
+    PRIMARY KEY (id, archived)
+) PARTITION BY LIST (archived);
+
+CREATE TABLE device_hot PARTITION OF device FOR VALUES IN (false);
+
+CREATE TABLE device_archive PARTITION OF device FOR VALUES IN (true);
+
+INSERT INTO device (id, name, brand, state, creation_time, version)
+SELECT id, name, brand, state, creation_time, version FROM device_unpartitioned;
+
+DROP TABLE device_unpartitioned;
+
+-- Indexes of the hot partition are created first under the parent's index names, suffixed, so that query plans
+-- name them; creating the parent index then attaches them and creates those of the archive partition.
+
+CREATE INDEX idx_device_brand_id_hot ON device_hot (brand, id);
+
+CREATE INDEX idx_device_state_id_hot ON device_hot (state, id);
+
+CREATE INDEX idx_device_creation_time_hot ON device_hot (creation_time);
+
+CREATE INDEX idx_device_available_brand_id_hot ON device_hot (brand, id) WHERE state = 'AVAILABLE';
+
+CREATE INDEX idx_device_name_prefix_hot ON device_hot (name text_pattern_ops);
+
+CREATE INDEX idx_device_name_trgm_hot ON device_hot USING gin (name gin_trgm_ops);
+
+-- Index for the archiver (WHERE NOT archived AND state = 'INACTIVE' AND creation_time < ? ORDER BY creation_time).
+CREATE INDEX idx_device_inactive_creation_time_hot ON device_hot (creation_time) WHERE state = 'INACTIVE';
+
+CREATE INDEX idx_device_brand_id ON device (brand, id);
+
+CREATE INDEX idx_device_state_id ON device (state, id);
+
+CREATE INDEX idx_device_creation_time ON device (creation_time);
+
+CREATE INDEX idx_device_available_brand_id ON device (brand, id) WHERE state = 'AVAILABLE';
+
+CREATE INDEX idx_device_name_prefix ON device (name text_pattern_ops);
+
+CREATE INDEX idx_device_name_trgm ON device USING gin (name gin_trgm_ops);
+
+CREATE INDEX idx_device_inactive_creation_time ON device (creation_time) WHERE state = 'INACTIVE';
+
+ANALYZE device;
@@ -0,0 +1,20 @@
+-- Soft delete: deletes set deleted_at, every query skips deleted devices, and the purger removes them later in batches.
+-- A nullable column without default is added without rewriting the table.
+
+ALTER TABLE device ADD COLUMN IF NOT EXISTS deleted_at TIMESTAMP(6);
+
+-- Partial indexes of the devices not deleted, replacing the keyset indexes so that deleted devices waiting for the purger
+-- take no room in them. Created on the parent only, so without building anything or locking writes for long:
+-- V12 builds the partition indexes concurrently and V13 attaches them, which makes these valid.
+
+CREATE INDEX IF NOT EXISTS idx_device_live_id ON ONLY device (id) WHERE deleted_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_device_live_brand_id ON ONLY device (brand, id) WHERE deleted_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_device_live_state_id ON ONLY device (state, id) WHERE deleted_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_device_live_available_brand_id ON ONLY device (brand, id)
+    WHERE state = 'AVAILABLE' AND deleted_at IS NULL;
+
+-- Index for the purger (WHERE deleted_at < ? ORDER BY deleted_at), holding only the deleted devices.
+CREATE INDEX IF NOT EXISTS idx_device_deleted_at ON ONLY device (deleted_at) WHERE deleted_at IS NOT NULL;
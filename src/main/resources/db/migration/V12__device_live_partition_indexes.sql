@@ -0,0 +1,22 @@
+-- Partition indexes of the partial indexes created by V11, built concurrently so the device table stays writable;
+-- Flyway runs these statements outside a transaction.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_device_live_id_hot ON device_hot (id) WHERE deleted_at IS NULL;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_device_live_brand_id_hot ON device_hot (brand, id) WHERE deleted_at IS NULL;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_device_live_state_id_hot ON device_hot (state, id) WHERE deleted_at IS NULL;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_device_live_available_brand_id_hot ON device_hot (brand, id) WHERE state = 'AVAILABLE' AND deleted_at IS NULL;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_device_deleted_at_hot ON device_hot (deleted_at) WHERE deleted_at IS NOT NULL;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_device_live_id_archive ON device_archive (id) WHERE deleted_at IS NULL;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_device_live_brand_id_archive ON device_archive (brand, id) WHERE deleted_at IS NULL;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_device_live_state_id_archive ON device_archive (state, id) WHERE deleted_at IS NULL;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_device_live_available_brand_id_archive ON device_archive (brand, id) WHERE state = 'AVAILABLE' AND deleted_at IS NULL;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_device_deleted_at_archive ON device_archive (deleted_at) WHERE deleted_at IS NOT NULL;
@@ -0,0 +1,28 @@
+-- Attaches the partition indexes built by V12 to their parent indexes from V11, which become valid,
+-- then drops the keyset indexes they replace.
+
+ALTER INDEX idx_device_live_id ATTACH PARTITION idx_device_live_id_hot;
+
+ALTER INDEX idx_device_live_brand_id ATTACH PARTITION idx_device_live_brand_id_hot;
+
+ALTER INDEX idx_device_live_state_id ATTACH PARTITION idx_device_live_state_id_hot;
+
+ALTER INDEX idx_device_live_available_brand_id ATTACH PARTITION idx_device_live_available_brand_id_hot;
+
+ALTER INDEX idx_device_deleted_at ATTACH PARTITION idx_device_deleted_at_hot;
+
+ALTER INDEX idx_device_live_id ATTACH PARTITION idx_device_live_id_archive;
+
+ALTER INDEX idx_device_live_brand_id ATTACH PARTITION idx_device_live_brand_id_archive;
+
+ALTER INDEX idx_device_live_state_id ATTACH PARTITION idx_device_live_state_id_archive;
+
+ALTER INDEX idx_device_live_available_brand_id ATTACH PARTITION idx_device_live_available_brand_id_archive;
+
+ALTER INDEX idx_device_deleted_at ATTACH PARTITION idx_device_deleted_at_archive;
+
+DROP INDEX IF EXISTS idx_device_brand_id;
+
+DROP INDEX IF EXISTS idx_device_state_id;
+
+DROP INDEX IF EXISTS idx_device_available_brand_id;
@@ -0,0 +1,22 @@
+-- When a device last changed state, so that the archiver ages devices by how long they have been INACTIVE rather than
+-- by how long they have existed. Existing devices start from their creation time, the best known bound.
+-- The trigger keeps the column right for every writer, the conditional statements, JPA flushes and R2DBC saves alike.
+
+ALTER TABLE device ADD COLUMN IF NOT EXISTS state_changed_at TIMESTAMP(6) NOT NULL DEFAULT now();
+
+UPDATE device SET state_changed_at = creation_time;
+
+CREATE OR REPLACE FUNCTION device_state_changed_at() RETURNS trigger AS $$
+BEGIN
+    IF NEW.state IS DISTINCT FROM OLD.state THEN
+        NEW.state_changed_at := now();
+    END IF;
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER device_state_changed_at BEFORE UPDATE OF state ON device
+    FOR EACH ROW EXECUTE FUNCTION device_state_changed_at();
+
+-- The archiver no longer filters on creation_time; V15 builds its new index.
+DROP INDEX IF EXISTS idx_device_inactive_creation_time;
@@ -0,0 +1,6 @@
+-- Index for the archiver (WHERE NOT archived AND state = 'INACTIVE' AND state_changed_at < ? ORDER BY state_changed_at),
+-- on the hot partition only, the one the archiver reads; built concurrently so the device table stays writable,
+-- which makes Flyway run this migration outside a transaction.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_device_inactive_state_changed_at_hot ON device_hot (state_changed_at)
+    WHERE state = 'INACTIVE';
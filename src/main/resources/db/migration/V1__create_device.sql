@@ -0,0 +1,16 @@
+-- Device table and ID sequence, matching the Device entity.
+-- IF NOT EXISTS keeps this runnable on databases created earlier by ddl-auto (see baseline-on-migrate).
+
+CREATE SEQUENCE IF NOT EXISTS device_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS device (
+    id            BIGINT       NOT NULL PRIMARY KEY,
+    name          VARCHAR(255) NOT NULL,
+    brand         VARCHAR(255) NOT NULL,
+    state         VARCHAR(255) NOT NULL CHECK (state IN ('AVAILABLE', 'IN_USE', 'INACTIVE')),
+    creation_time TIMESTAMP(6) NOT NULL
+);
+
+-- The pooled optimizer hands out the IDs below the value returned by the sequence,
+-- so moving it to the current maximum keeps new IDs clear of existing rows.
+SELECT setval('device_seq', (SELECT MAX(id) FROM device)) WHERE EXISTS (SELECT 1 FROM device);
@@ -0,0 +1,9 @@
+-- Indexes for the keyset list queries (WHERE <filter> = ? AND id > ? ORDER BY id LIMIT ?):
+-- with the filter column first and id second, one index range scan returns the page already ordered.
+-- Built concurrently so existing tables stay writable; Flyway runs these statements outside a transaction.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_device_brand_id ON device (brand, id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_device_state_id ON device (state, id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_device_creation_time ON device (creation_time);
@@ -0,0 +1,3 @@
+-- Version column for optimistic concurrency control; exposed to clients as the device ETag.
+
+ALTER TABLE device ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
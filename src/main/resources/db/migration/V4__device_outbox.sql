@@ -0,0 +1,12 @@
+-- Outbox of device changes, written in the transaction of the change and drained by the outbox relay.
+-- Rows are deleted once delivered, so the table only holds the undelivered backlog.
+
+CREATE SEQUENCE IF NOT EXISTS device_outbox_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS device_outbox (
+    id         BIGINT       NOT NULL PRIMARY KEY,
+    type       VARCHAR(16)  NOT NULL,
+    device_id  BIGINT       NOT NULL,
+    payload    JSONB        NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL
+);
@@ -0,0 +1,4 @@
+-- Index for claiming any available device of a brand (WHERE brand = ? AND state = 'AVAILABLE' ORDER BY id LIMIT 1):
+-- being partial, it only holds the available devices and shrinks as they are checked out.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_device_available_brand_id ON device (brand, id) WHERE state = 'AVAILABLE';
@@ -0,0 +1,4 @@
+-- Index for name prefix searches (WHERE name LIKE 'prefix%'): text_pattern_ops compares character by character,
+-- which lets LIKE prefixes use the index whatever the database collation.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_device_name_prefix ON device (name text_pattern_ops);
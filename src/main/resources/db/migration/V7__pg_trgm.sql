@@ -0,0 +1,4 @@
+-- Trigram matching for fuzzy name searches. Kept apart from the index creation below,
+-- which Flyway has to run outside a transaction.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
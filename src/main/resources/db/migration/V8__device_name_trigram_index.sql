@@ -0,0 +1,4 @@
+-- Trigram index for fuzzy name searches (WHERE ? <% name): finds names sharing enough trigrams with
+-- the query, partial or misspelled, without scanning the table as LIKE '%x%' would.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_device_name_trgm ON device USING gin (name gin_trgm_ops);
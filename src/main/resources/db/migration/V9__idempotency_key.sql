@@ -0,0 +1,11 @@
+-- Idempotency keys of the database idempotency store, shared by all instances.
+-- A key without a response is reserved by a running request until expires_at.
+
+CREATE TABLE IF NOT EXISTS idempotency_key (
+    id          TEXT         NOT NULL PRIMARY KEY,
+    fingerprint VARCHAR(64)  NOT NULL,
+    response    TEXT,
+    expires_at  TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_key_expires_at ON idempotency_key (expires_at);
@@ -0,0 +1,66 @@
+package com.example.deviceapi.config;
+
+import com.example.deviceapi.config.AdaptiveConcurrencyLimiter.Priority;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    void shouldShedLowPriorityFirst() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 100);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire(Priority.LOW));
+        }
+        assertFalse(limiter.tryAcquire(Priority.LOW));
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire(Priority.NORMAL));
+        }
+        assertFalse(limiter.tryAcquire(Priority.NORMAL));
+        assertTrue(limiter.tryAcquire(Priority.HIGH));
+        assertTrue(limiter.tryAcquire(Priority.HIGH));
+        assertFalse(limiter.tryAcquire(Priority.HIGH));
+        assertEquals(10, limiter.getInFlight());
+    }
+
+    @Test
+    void shouldGrowWhileLatencyIsSteadyAndShrinkWhenItRises() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 5, 100);
+
+        saturate(limiter, 1_000_000, 200);
+        int steady = limiter.getLimit();
+        assertTrue(steady > 20, "limit " + steady);
+
+        saturate(limiter, 10_000_000, 1);
+        int congested = limiter.getLimit();
+        assertTrue(congested < steady, "limit " + congested);
+    }
+
+    @Test
+    void shouldKeepLimitWhenMostlyIdle() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 5, 100);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limiter.tryAcquire(Priority.HIGH));
+            limiter.release(i % 2 == 0 ? 1_000_000 : 50_000_000);
+        }
+
+        assertEquals(20, limiter.getLimit());
+    }
+
+    private static void saturate(AdaptiveConcurrencyLimiter limiter, long rttNanos, int samples) {
+        for (int i = 0; i < samples; i++) {
+            int admitted = 0;
+            while (limiter.tryAcquire(Priority.HIGH)) {
+                admitted++;
+            }
+            for (int j = 0; j < admitted; j++) {
+                limiter.release(rttNanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.deviceapi.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class RateLimitFilterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setup() {
+        filter = new RateLimitFilter(10, 5, 100, mock(HandlerExceptionResolver.class));
+    }
+
+    @Test
+    void shouldAdmitBurstThenRejectUntilRefill() {
+        long now = 0;
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, filter.tryAcquire("client", now));
+        }
+        long wait = filter.tryAcquire("client", now);
+        assertEquals(SECOND / 10, wait);
+
+        assertEquals(0, filter.tryAcquire("client", now + wait));
+        assertTrue(filter.tryAcquire("client", now + wait) > 0);
+    }
+
+    @Test
+    void shouldSustainConfiguredRate() {
+        long now = 0;
+        int admitted = 0;
+        for (int i = 0; i < 100; i++) {
+            now += SECOND / 20;
+            if (filter.tryAcquire("client", now) == 0) {
+                admitted++;
+            }
+        }
+
+        // 5 seconds at 20 requests per second: the burst plus 10 per second
+        assertTrue(admitted >= 54 && admitted <= 56, "admitted " + admitted);
+    }
+
+    @Test
+    void shouldKeepClientsApart() {
+        for (int i = 0; i < 5; i++) {
+            filter.tryAcquire("greedy", 0);
+        }
+
+        assertTrue(filter.tryAcquire("greedy", 0) > 0);
+        assertEquals(0, filter.tryAcquire("other", 0));
+    }
+
+    @Test
+    void shouldIgnoreClientChosenHeaders() throws Exception {
+        RateLimitFilter slowFilter = new RateLimitFilter(0.1, 5, 100, mock(HandlerExceptionResolver.class));
+        for (int i = 0; i < 6; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/devices");
+            request.setRemoteAddr("10.0.0.1");
+            request.addHeader("X-API-Key", "key-" + i);
+            MockHttpServletResponse response = new MockHttpServletResponse();
+
+            slowFilter.doFilter(request, response, new MockFilterChain());
+
+            assertEquals(i < 5 ? 200 : 429, response.getStatus());
+        }
+    }
+}
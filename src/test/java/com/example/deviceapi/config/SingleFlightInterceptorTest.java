@@ -0,0 +1,200 @@
+package com.example.deviceapi.config;
+
+import com.example.deviceapi.service.DevicesArchivedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SingleFlightInterceptorTest {
+
+    private SimpleMeterRegistry registry;
+    private SlowStore target;
+    private SingleFlightInterceptor interceptor;
+    private Store store;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setup() {
+        registry = new SimpleMeterRegistry();
+        target = new SlowStore();
+        ProxyFactory factory = new ProxyFactory(target);
+        factory.addInterface(Store.class);
+        interceptor = new SingleFlightInterceptor(Set.of("get"), Set.of("put"), 2, registry);
+        factory.addAdvice(interceptor);
+        store = (Store) factory.getProxy();
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        target.release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldShareConcurrentIdenticalReads() throws Exception {
+        Future<String> leader = executor.submit(() -> store.get("a"));
+        assertTrue(target.started.await(5, TimeUnit.SECONDS));
+        Future<String> follower = executor.submit(() -> store.get("a"));
+        awaitShared(1);
+        target.release.countDown();
+
+        assertEquals("a1", leader.get(5, TimeUnit.SECONDS));
+        assertEquals("a1", follower.get(5, TimeUnit.SECONDS));
+        assertEquals(1, target.reads.get());
+    }
+
+    @Test
+    void shouldNotShareReadsOfDifferentArguments() throws Exception {
+        target.release.countDown();
+
+        assertEquals("a1", store.get("a"));
+        assertEquals("b2", store.get("b"));
+        assertEquals(2, target.reads.get());
+    }
+
+    @Test
+    void shouldNotShareReadStartedBeforeWrite() throws Exception {
+        Future<String> stale = executor.submit(() -> store.get("a"));
+        assertTrue(target.started.await(5, TimeUnit.SECONDS));
+        store.put("a");
+        Future<String> fresh = executor.submit(() -> store.get("a"));
+        target.release.countDown();
+
+        assertEquals("a1", stale.get(5, TimeUnit.SECONDS));
+        assertEquals("a2", fresh.get(5, TimeUnit.SECONDS));
+        assertEquals(0, registry.counter(SingleFlightInterceptor.METRIC, "operation", "get", "role", "shared").count());
+    }
+
+    @Test
+    void shouldNotShareReadStartedBeforeArchival() throws Exception {
+        Future<String> stale = executor.submit(() -> store.get("a"));
+        assertTrue(target.started.await(5, TimeUnit.SECONDS));
+        interceptor.onDevicesArchived(new DevicesArchivedEvent(List.of(1L)));
+        Future<String> fresh = executor.submit(() -> store.get("a"));
+        target.release.countDown();
+
+        assertEquals("a1", stale.get(5, TimeUnit.SECONDS));
+        assertEquals("a2", fresh.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void shouldShareReadAcrossCallsThatAreNotWrites() throws Exception {
+        Future<String> leader = executor.submit(() -> store.get("a"));
+        assertTrue(target.started.await(5, TimeUnit.SECONDS));
+        store.count();
+        Future<String> follower = executor.submit(() -> store.get("a"));
+        awaitShared(1);
+        target.release.countDown();
+
+        assertEquals("a1", leader.get(5, TimeUnit.SECONDS));
+        assertEquals("a1", follower.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void shouldRejectCoalescedWrites() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new SingleFlightInterceptor(Set.of("get"), Set.of("get", "put"), 2, registry));
+    }
+
+    @Test
+    void shouldNotShareReadWithReadYourWritesCaller() throws Exception {
+        Future<String> replica = executor.submit(() -> store.get("a"));
+        assertTrue(target.started.await(5, TimeUnit.SECONDS));
+        Future<String> primary = executor.submit(() -> {
+            ReadYourWrites.require();
+            try {
+                return store.get("a");
+            } finally {
+                ReadYourWrites.clear();
+            }
+        });
+        target.release.countDown();
+
+        assertEquals("a1", replica.get(5, TimeUnit.SECONDS));
+        assertEquals("a2", primary.get(5, TimeUnit.SECONDS));
+        assertEquals(0, registry.counter(SingleFlightInterceptor.METRIC, "operation", "get", "role", "shared").count());
+    }
+
+    @Test
+    void shouldRegisterCountersUpFront() {
+        assertEquals(3, registry.find(SingleFlightInterceptor.METRIC).tag("operation", "get").counters().size());
+    }
+
+    @Test
+    void shouldRunOwnReadBeyondWaiterLimit() throws Exception {
+        Future<String> leader = executor.submit(() -> store.get("a"));
+        assertTrue(target.started.await(5, TimeUnit.SECONDS));
+        executor.submit(() -> store.get("a"));
+        executor.submit(() -> store.get("a"));
+        awaitShared(2);
+        Future<String> overflow = executor.submit(() -> store.get("a"));
+        target.release.countDown();
+
+        assertEquals("a1", leader.get(5, TimeUnit.SECONDS));
+        assertEquals("a2", overflow.get(5, TimeUnit.SECONDS));
+        assertEquals(1, registry.counter(SingleFlightInterceptor.METRIC, "operation", "get", "role", "overflow").count());
+    }
+
+    private void awaitShared(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (registry.counter(SingleFlightInterceptor.METRIC, "operation", "get", "role", "shared").count() < count
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    public interface Store {
+
+        String get(String key);
+
+        void put(String key);
+
+        int count();
+    }
+
+    static class SlowStore implements Store {
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger reads = new AtomicInteger();
+
+        @Override
+        @Transactional(readOnly = true)
+        public String get(String key) {
+            String result = key + reads.incrementAndGet();
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return result;
+        }
+
+        @Override
+        public void put(String key) {
+        }
+
+        @Override
+        public int count() {
+            return reads.get();
+        }
+    }
+}
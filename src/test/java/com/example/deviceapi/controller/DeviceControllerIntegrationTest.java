@@ -1,26 +1,56 @@
 
 package com.example.deviceapi.controller;
 
+import com.example.deviceapi.dto.DeviceBatchRequestDTO;
+import com.example.deviceapi.dto.DeviceBatchResponseDTO;
+import com.example.deviceapi.dto.DeviceBatchUpdateDTO;
+import com.example.deviceapi.dto.DeviceChangeDTO;
+import com.example.deviceapi.dto.DeviceDeleteResultDTO;
 import com.example.deviceapi.dto.DeviceRequestDTO;
 import com.example.deviceapi.dto.DeviceResponseDTO;
+import com.example.deviceapi.dto.DeviceStatsDTO;
 import com.example.deviceapi.entity.DeviceState;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
-
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -38,6 +68,19 @@ class DeviceControllerIntegrationTest {
         registry.add("spring.datasource.url", postgres::getJdbcUrl);
         registry.add("spring.datasource.username", postgres::getUsername);
         registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("device-api.outbox.file", OUTBOX_FILE::toString);
+    }
+
+    private static final Path OUTBOX_FILE = createOutboxFile();
+
+    private static Path createOutboxFile() {
+        try {
+            Path file = Files.createTempFile("device-events", ".ndjson");
+            file.toFile().deleteOnExit();
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     @LocalServerPort
@@ -76,6 +119,33 @@ class DeviceControllerIntegrationTest {
     }
 
 
+    @Test
+    void testCreateWithIdempotencyKeyIsReplayed() {
+        DeviceRequestDTO dto = new DeviceRequestDTO("Retried", "BrandI", DeviceState.AVAILABLE);
+        List<DeviceResponseDTO> responses = Flux.range(0, 3)
+                .flatMap(i -> client.post()
+                        .uri("/api/v1/devices")
+                        .header(DeviceController.IDEMPOTENCY_KEY_HEADER, "create-retried")
+                        .bodyValue(dto)
+                        .retrieve()
+                        .bodyToMono(DeviceResponseDTO.class))
+                .collectList()
+                .block();
+
+        assertNotNull(responses);
+        assertEquals(1, responses.stream().map(DeviceResponseDTO::id).distinct().count());
+
+        client.post()
+                .uri("/api/v1/devices")
+                .header(DeviceController.IDEMPOTENCY_KEY_HEADER, "create-retried")
+                .bodyValue(new DeviceRequestDTO("Other", "BrandI", DeviceState.AVAILABLE))
+                .exchangeToMono(response -> {
+                    assertEquals(422, response.statusCode().value());
+                    return response.releaseBody();
+                })
+                .block();
+    }
+
     @Test
     void testGetDeviceById() {
         var created = createTestDevice("Phone", "BrandX", DeviceState.AVAILABLE);
@@ -89,6 +159,122 @@ class DeviceControllerIntegrationTest {
         assertEquals(created.id(), result.id());
     }
 
+    @Test
+    void testGetDeviceByIdWithEpochMillis() {
+        var created = createTestDevice("Clock", "BrandT", DeviceState.AVAILABLE);
+
+        Map<String, Object> result = client.get()
+                .uri("/api/v1/devices/" + created.id())
+                .accept(MediaType.parseMediaType("application/json;time=epoch-millis"))
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {})
+                .block();
+
+        assertNotNull(result);
+        long expected = created.creationTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        assertEquals(expected, ((Number) result.get("creationTime")).longValue(), 1);
+    }
+
+    @Test
+    void testGetDeviceByIdAsCbor() {
+        var created = createTestDevice("Binary", "BrandC", DeviceState.AVAILABLE);
+
+        var result = client.get()
+                .uri("/api/v1/devices/" + created.id())
+                .accept(MediaType.APPLICATION_CBOR)
+                .retrieve()
+                .toEntity(DeviceResponseDTO.class)
+                .block();
+
+        assertNotNull(result);
+        assertTrue(MediaType.APPLICATION_CBOR.isCompatibleWith(result.getHeaders().getContentType()));
+        assertEquals("Binary", result.getBody().name());
+        assertEquals(created.creationTime().withNano(0), result.getBody().creationTime().withNano(0));
+    }
+
+    @Test
+    void testGetDeviceByIdNotModified() {
+        var created = createTestDevice("Polled", "BrandE", DeviceState.AVAILABLE);
+
+        String etag = client.get()
+                .uri("/api/v1/devices/" + created.id())
+                .retrieve()
+                .toBodilessEntity()
+                .block()
+                .getHeaders()
+                .getETag();
+        assertEquals("\"" + created.version() + "\"", etag);
+
+        client.get()
+                .uri("/api/v1/devices/" + created.id())
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .exchangeToMono(response -> {
+                    assertEquals(304, response.statusCode().value());
+                    return response.releaseBody();
+                })
+                .block();
+    }
+
+    @Test
+    void testUpdateWithStaleIfMatchShouldFail() {
+        var created = createTestDevice("Versioned", "BrandV", DeviceState.AVAILABLE);
+        String etag = "\"" + created.version() + "\"";
+
+        DeviceResponseDTO updated = client.patch()
+                .uri("/api/v1/devices/" + created.id())
+                .header(HttpHeaders.IF_MATCH, etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new DeviceRequestDTO("Versioned2", "BrandV", DeviceState.AVAILABLE))
+                .retrieve()
+                .bodyToMono(DeviceResponseDTO.class)
+                .block();
+        assertEquals(Long.valueOf(created.version() + 1), updated.version());
+
+        client.put()
+                .uri("/api/v1/devices/" + created.id())
+                .header(HttpHeaders.IF_MATCH, etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new DeviceRequestDTO("Versioned3", "BrandV", DeviceState.AVAILABLE))
+                .exchangeToMono(response -> {
+                    assertEquals(412, response.statusCode().value());
+                    return response.bodyToMono(String.class);
+                })
+                .block();
+
+        client.delete()
+                .uri("/api/v1/devices/" + created.id())
+                .header(HttpHeaders.IF_MATCH, etag)
+                .exchangeToMono(response -> {
+                    assertEquals(412, response.statusCode().value());
+                    return response.bodyToMono(String.class);
+                })
+                .block();
+    }
+
+    @Test
+    void testIfMatchListAndWildcard() {
+        var created = createTestDevice("Listed", "BrandL", DeviceState.AVAILABLE);
+
+        DeviceResponseDTO updated = client.put()
+                .uri("/api/v1/devices/" + created.id())
+                .header(HttpHeaders.IF_MATCH, "\"" + (created.version() + 7) + "\", \"" + created.version() + "\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new DeviceRequestDTO("Listed2", "BrandL", DeviceState.AVAILABLE))
+                .retrieve()
+                .bodyToMono(DeviceResponseDTO.class)
+                .block();
+        assertEquals("Listed2", updated.name());
+
+        client.delete()
+                .uri("/api/v1/devices/999999")
+                .header(HttpHeaders.IF_MATCH, "*")
+                .exchangeToMono(response -> {
+                    assertEquals(412, response.statusCode().value());
+                    return response.bodyToMono(String.class);
+                })
+                .block();
+    }
+
     @Test
     void testGetAllDevices() {
         createTestDevice("Device1", "Brand1", DeviceState.AVAILABLE);
@@ -105,6 +291,102 @@ class DeviceControllerIntegrationTest {
         assertTrue(result.size() >= 2);
     }
 
+    @Test
+    void testGetAllDevicesIsPaginatedByCursor() {
+        createTestDevice("Paged1", "PagedBrand", DeviceState.AVAILABLE);
+        createTestDevice("Paged2", "PagedBrand", DeviceState.AVAILABLE);
+        createTestDevice("Paged3", "PagedBrand", DeviceState.AVAILABLE);
+
+        var firstPage = client.get()
+                .uri("/api/v1/devices/brand/PagedBrand?limit=2")
+                .retrieve()
+                .toEntityList(DeviceResponseDTO.class)
+                .block();
+
+        assertNotNull(firstPage);
+        assertEquals(2, firstPage.getBody().size());
+        String cursor = firstPage.getHeaders().getFirst(DeviceController.NEXT_CURSOR_HEADER);
+        assertNotNull(cursor);
+
+        var secondPage = client.get()
+                .uri("/api/v1/devices/brand/PagedBrand?limit=2&after=" + cursor)
+                .retrieve()
+                .toEntityList(DeviceResponseDTO.class)
+                .block();
+
+        assertNotNull(secondPage);
+        assertEquals(1, secondPage.getBody().size());
+        assertEquals("Paged3", secondPage.getBody().get(0).name());
+        assertNull(secondPage.getHeaders().getFirst(DeviceController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void testMalformedCursorShouldFail() {
+        client.get()
+                .uri("/api/v1/devices?after=garbage")
+                .exchangeToMono(response -> {
+                    assertEquals(400, response.statusCode().value());
+                    return response.bodyToMono(String.class);
+                })
+                .block();
+    }
+
+    @Test
+    void testExportDevicesAsNdjson() {
+        var created = createTestDevice("Exported", "ExportBrand", DeviceState.AVAILABLE);
+
+        var response = client.get()
+                .uri("/api/v1/devices/export")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .retrieve()
+                .toEntity(String.class)
+                .block();
+
+        assertNotNull(response);
+        assertTrue(MediaType.APPLICATION_NDJSON.isCompatibleWith(response.getHeaders().getContentType()));
+        List<String> lines = response.getBody().lines().toList();
+        assertFalse(lines.isEmpty());
+        assertTrue(lines.stream().noneMatch(line -> line.isBlank()));
+        assertTrue(lines.stream().anyMatch(line -> line.contains("\"id\":" + created.id() + ",")));
+    }
+
+    @Test
+    void testBatchDevices() {
+        var toUpdate = createTestDevice("BatchOld", "BatchBrand", DeviceState.AVAILABLE);
+        var inUse = createTestDevice("BatchBusy", "BatchBrand", DeviceState.IN_USE);
+        var toDelete = createTestDevice("BatchTrash", "BatchBrand", DeviceState.INACTIVE);
+
+        DeviceBatchRequestDTO batch = new DeviceBatchRequestDTO(
+                List.of(new DeviceRequestDTO("BatchNew1", "BatchBrand", DeviceState.AVAILABLE),
+                        new DeviceRequestDTO("BatchNew2", "BatchBrand", DeviceState.AVAILABLE)),
+                List.of(new DeviceBatchUpdateDTO(toUpdate.id(), "BatchUpdated", "BatchBrand", DeviceState.AVAILABLE)),
+                List.of(toDelete.id(), inUse.id()));
+
+        DeviceBatchResponseDTO result = client.post()
+                .uri("/api/v1/devices:batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(batch)
+                .retrieve()
+                .bodyToMono(DeviceBatchResponseDTO.class)
+                .block();
+
+        assertNotNull(result);
+        assertEquals(2, result.create().size());
+        assertEquals(201, result.create().get(0).status());
+        assertNotNull(result.create().get(1).id());
+        assertEquals("BatchUpdated", result.update().get(0).device().name());
+        assertEquals(204, result.delete().get(0).status());
+        assertEquals(409, result.delete().get(1).status());
+
+        client.get()
+                .uri("/api/v1/devices/" + toDelete.id())
+                .exchangeToMono(response -> {
+                    assertEquals(404, response.statusCode().value());
+                    return response.bodyToMono(String.class);
+                })
+                .block();
+    }
+
     @Test
     void testGetByBrand() {
         createTestDevice("BrandDevice", "TestBrand", DeviceState.AVAILABLE);
@@ -156,6 +438,30 @@ class DeviceControllerIntegrationTest {
         assertEquals(DeviceState.INACTIVE, updated.state());
     }
 
+    @Test
+    void testGetDeviceByIdAfterUpdate() {
+        var created = createTestDevice("Cached", "CacheBrand", DeviceState.AVAILABLE);
+        client.get().uri("/api/v1/devices/" + created.id()).retrieve().bodyToMono(DeviceResponseDTO.class).block();
+
+        client.put()
+                .uri("/api/v1/devices/" + created.id())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new DeviceRequestDTO("Recached", "CacheBrand", DeviceState.INACTIVE))
+                .retrieve()
+                .bodyToMono(DeviceResponseDTO.class)
+                .block();
+
+        DeviceResponseDTO result = client.get()
+                .uri("/api/v1/devices/" + created.id())
+                .retrieve()
+                .bodyToMono(DeviceResponseDTO.class)
+                .block();
+
+        assertNotNull(result);
+        assertEquals("Recached", result.name());
+        assertEquals(DeviceState.INACTIVE, result.state());
+    }
+
     @Test
     void testPartialUpdateDevice() {
         var created = createTestDevice("Partial", "BrandP", DeviceState.AVAILABLE);
@@ -173,6 +479,54 @@ class DeviceControllerIntegrationTest {
         assertEquals("PartialUpdated", updated.name());
     }
 
+    @Test
+    void testPartialUpdateInUseStateOnly() {
+        var inUse = createTestDevice("Returned", "Locked", DeviceState.IN_USE);
+
+        DeviceResponseDTO updated = client.patch()
+                .uri("/api/v1/devices/" + inUse.id())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"state\":\"AVAILABLE\"}")
+                .retrieve()
+                .bodyToMono(DeviceResponseDTO.class)
+                .block();
+
+        assertNotNull(updated);
+        assertEquals("Returned", updated.name());
+        assertEquals("Locked", updated.brand());
+        assertEquals(DeviceState.AVAILABLE, updated.state());
+    }
+
+    @Test
+    void testUpdateMissingDeviceShouldFail() {
+        client.put()
+                .uri("/api/v1/devices/999999")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new DeviceRequestDTO("Ghost", "None", DeviceState.AVAILABLE))
+                .exchangeToMono(response -> {
+                    assertEquals(404, response.statusCode().value());
+                    return response.bodyToMono(String.class);
+                })
+                .block();
+    }
+
+    @Test
+    void testMissingDeviceIsRenderedAsProblem() {
+        Map<String, Object> problem = client.get()
+                .uri("/api/v1/devices/999999")
+                .exchangeToMono(response -> {
+                    assertEquals(404, response.statusCode().value());
+                    assertEquals(MediaType.APPLICATION_PROBLEM_JSON, response.headers().contentType().orElseThrow());
+                    return response.bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {});
+                })
+                .block();
+
+        assertNotNull(problem);
+        assertEquals(404, problem.get("status"));
+        assertEquals("Device not found", problem.get("title"));
+        assertFalse(problem.containsKey("stackTrace"));
+    }
+
     @Test
     void testDeleteDevice() {
         var created = createTestDevice("ToDelete", "Trash", DeviceState.AVAILABLE);
@@ -194,6 +548,51 @@ class DeviceControllerIntegrationTest {
         assertNotNull(notFound);
     }
 
+    @Test
+    void testDeleteAllMarksMatchingDevices() {
+        var inactive = createTestDevice("Retired", "BulkTrash", DeviceState.INACTIVE);
+        var available = createTestDevice("Spare", "BulkTrash", DeviceState.AVAILABLE);
+
+        var result = client.delete()
+                .uri(uri -> uri.path("/api/v1/devices")
+                        .queryParam("state", DeviceState.INACTIVE)
+                        .queryParam("createdBefore", available.creationTime())
+                        .build())
+                .retrieve()
+                .bodyToMono(DeviceDeleteResultDTO.class)
+                .block();
+
+        assertNotNull(result);
+        assertTrue(result.deleted() >= 1);
+        client.get().uri("/api/v1/devices/" + inactive.id())
+                .exchangeToMono(res -> {
+                    assertEquals(404, res.statusCode().value());
+                    return res.releaseBody();
+                })
+                .block();
+        assertEquals(available.id(), client.get().uri("/api/v1/devices/" + available.id())
+                .retrieve().bodyToMono(DeviceResponseDTO.class).block().id());
+    }
+
+    @Test
+    void testPrometheusExposesServiceAndProblemMetrics() {
+        client.get()
+                .uri("/api/v1/devices/999998")
+                .exchangeToMono(response -> response.bodyToMono(String.class))
+                .block();
+
+        String metrics = client.get()
+                .uri("/actuator/prometheus")
+                .retrieve()
+                .bodyToMono(String.class)
+                .block();
+
+        assertNotNull(metrics);
+        assertTrue(metrics.contains("device_service_seconds_count{operation=\"findById\",outcome=\"not_found\",state=\"none\"}"));
+        assertTrue(metrics.contains("device_api_problems_total{problem=\"DeviceNotFoundException\",status=\"404\"}"));
+        assertTrue(metrics.contains("hikaricp_connections_active"));
+    }
+
     @Test
     void testDeleteInUseDeviceShouldFail() {
         var inUse = createTestDevice("InUse", "Locked", DeviceState.IN_USE);
@@ -238,4 +637,222 @@ class DeviceControllerIntegrationTest {
                 })
                 .block();
     }
+
+    @Test
+    void testUpdateOfDeviceArchivedMeanwhileIsConflict() throws Exception {
+        var device = createTestDevice("Moving", "MoveBrand", DeviceState.INACTIVE);
+
+        int status;
+        try (Connection archiver = connect(); Connection monitor = connect();
+             Statement archive = archiver.createStatement(); Statement waits = monitor.createStatement()) {
+            archiver.setAutoCommit(false);
+            archive.executeUpdate("UPDATE device SET archived = true WHERE id = " + device.id());
+            CompletableFuture<Integer> update = client.put()
+                    .uri("/api/v1/devices/" + device.id())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(new DeviceRequestDTO("Moved", "MoveBrand", DeviceState.AVAILABLE))
+                    .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode().value()))
+                    .toFuture();
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (!blockedOnLock(waits) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            archiver.commit();
+            status = update.get(10, TimeUnit.SECONDS);
+        }
+
+        assertEquals(409, status);
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+    }
+
+    private static boolean blockedOnLock(Statement statement) throws SQLException {
+        try (ResultSet result = statement.executeQuery(
+                "SELECT count(*) FROM pg_stat_activity WHERE wait_event_type = 'Lock'")) {
+            result.next();
+            return result.getInt(1) > 0;
+        }
+    }
+
+    @Test
+    void testStatsFollowChanges() {
+        var kept = createTestDevice("Counted", "StatsBrand", DeviceState.AVAILABLE);
+        var removed = createTestDevice("Removed", "StatsBrand", DeviceState.INACTIVE);
+        client.patch()
+                .uri("/api/v1/devices/" + kept.id())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new DeviceRequestDTO(null, null, DeviceState.IN_USE))
+                .retrieve()
+                .toBodilessEntity()
+                .block();
+        client.delete()
+                .uri("/api/v1/devices/" + removed.id())
+                .retrieve()
+                .toBodilessEntity()
+                .block();
+
+        DeviceStatsDTO stats = client.get()
+                .uri("/api/v1/devices/stats")
+                .retrieve()
+                .bodyToMono(DeviceStatsDTO.class)
+                .block();
+
+        assertNotNull(stats);
+        assertEquals(Long.valueOf(1), stats.byBrand().get("StatsBrand"));
+        assertEquals(Map.of(DeviceState.IN_USE, 1L), stats.byBrandAndState().get("StatsBrand"));
+        assertEquals(stats.total(), stats.byState().values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    void testChangesStreamCommittedChanges() throws InterruptedException {
+        BlockingQueue<ServerSentEvent<DeviceChangeDTO>> received = new LinkedBlockingQueue<>();
+        CountDownLatch connected = new CountDownLatch(1);
+        Disposable subscription = client.get()
+                .uri("/api/v1/devices/changes?brand=FeedBrand")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchangeToFlux(response -> {
+                    connected.countDown();
+                    return response.bodyToFlux(new ParameterizedTypeReference<ServerSentEvent<DeviceChangeDTO>>() {});
+                })
+                .subscribe(received::add);
+        try {
+            assertTrue(connected.await(10, TimeUnit.SECONDS));
+            createTestDevice("Other", "OtherBrand", DeviceState.AVAILABLE);
+            var created = createTestDevice("Streamed", "FeedBrand", DeviceState.AVAILABLE);
+
+            ServerSentEvent<DeviceChangeDTO> event = received.poll(10, TimeUnit.SECONDS);
+
+            assertNotNull(event);
+            assertEquals("created", event.event());
+            assertEquals(created.id(), event.data().deviceId());
+            assertEquals(DeviceState.AVAILABLE, event.data().state());
+            assertEquals(String.valueOf(event.data().eventId()), event.id());
+        } finally {
+            subscription.dispose();
+        }
+    }
+
+    @Test
+    void testOutboxRelaysCommittedChanges() throws IOException, InterruptedException {
+        var created = createTestDevice("Relayed", "OutboxBrand", DeviceState.AVAILABLE);
+
+        String expected = "\"id\":" + created.id() + ",";
+        long deadline = System.currentTimeMillis() + 10_000;
+        boolean relayed = false;
+        while (!relayed && System.currentTimeMillis() < deadline) {
+            relayed = Files.readAllLines(OUTBOX_FILE).stream()
+                    .anyMatch(line -> line.contains("\"CREATED\"") && line.contains(expected));
+            Thread.sleep(100);
+        }
+
+        assertTrue(relayed);
+    }
+
+    @Test
+    void testCheckOutAndCheckIn() {
+        var device = createTestDevice("Loaner", "CheckoutBrand", DeviceState.AVAILABLE);
+
+        DeviceResponseDTO checkedOut = client.post()
+                .uri("/api/v1/devices/" + device.id() + "/checkout")
+                .retrieve()
+                .bodyToMono(DeviceResponseDTO.class)
+                .block();
+        client.post()
+                .uri("/api/v1/devices/" + device.id() + "/checkout")
+                .exchangeToMono(response -> {
+                    assertEquals(409, response.statusCode().value());
+                    return response.bodyToMono(String.class);
+                })
+                .block();
+        DeviceResponseDTO checkedIn = client.post()
+                .uri("/api/v1/devices/" + device.id() + "/checkin")
+                .retrieve()
+                .bodyToMono(DeviceResponseDTO.class)
+                .block();
+
+        assertNotNull(checkedOut);
+        assertEquals(DeviceState.IN_USE, checkedOut.state());
+        assertNotNull(checkedIn);
+        assertEquals(DeviceState.AVAILABLE, checkedIn.state());
+        assertEquals(Long.valueOf(device.version() + 2), checkedIn.version());
+    }
+
+    @Test
+    void testConcurrentClaimsGetDistinctDevices() {
+        for (int i = 0; i < 5; i++) {
+            createTestDevice("Pool " + i, "ClaimBrand", DeviceState.AVAILABLE);
+        }
+
+        List<Integer> statuses = Flux.range(0, 8)
+                .flatMap(i -> client.post()
+                        .uri("/api/v1/devices/checkout?brand=ClaimBrand")
+                        .exchangeToMono(response -> Mono.just(response.statusCode().value())))
+                .collectList()
+                .block();
+        List<DeviceResponseDTO> claimed = client.get()
+                .uri("/api/v1/devices/brand/ClaimBrand")
+                .retrieve()
+                .bodyToFlux(DeviceResponseDTO.class)
+                .collectList()
+                .block();
+
+        assertNotNull(statuses);
+        assertEquals(5, statuses.stream().filter(status -> status == 200).count());
+        assertEquals(3, statuses.stream().filter(status -> status == 409).count());
+        assertNotNull(claimed);
+        assertTrue(claimed.stream().allMatch(device -> device.state() == DeviceState.IN_USE));
+    }
+
+    @Test
+    void testSearchCombinesFiltersAndProjects() {
+        createTestDevice("Scanner A", "SearchBrand", DeviceState.AVAILABLE);
+        createTestDevice("Scanner B", "SearchBrand", DeviceState.AVAILABLE);
+        createTestDevice("Scanner C", "SearchBrand", DeviceState.INACTIVE);
+        createTestDevice("Printer", "SearchBrand", DeviceState.AVAILABLE);
+
+        List<Map<String, Object>> result = client.get()
+                .uri(uri -> uri.path("/api/v1/devices/search")
+                        .queryParam("brand", "SearchBrand")
+                        .queryParam("state", "AVAILABLE")
+                        .queryParam("name", "Scan")
+                        .queryParam("createdFrom", LocalDateTime.now().minusDays(7))
+                        .queryParam("sort", "name,desc")
+                        .queryParam("fields", "name,state")
+                        .build())
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<List<Map<String, Object>>>() {})
+                .block();
+
+        assertEquals(List.of(
+                Map.of("name", "Scanner B", "state", "AVAILABLE"),
+                Map.of("name", "Scanner A", "state", "AVAILABLE")), result);
+    }
+
+    @Test
+    void testSearchRejectsUnknownField() {
+        client.get()
+                .uri("/api/v1/devices/search?fields=password")
+                .exchangeToMono(response -> {
+                    assertEquals(400, response.statusCode().value());
+                    return response.bodyToMono(String.class);
+                })
+                .block();
+    }
+
+    @Test
+    void testNameSearchToleratesMisspelling() {
+        var spectrometer = createTestDevice("Spectrometer Xq", "NameBrand", DeviceState.AVAILABLE);
+
+        List<DeviceResponseDTO> result = client.get()
+                .uri("/api/v1/devices/search/name?q=spectrometr")
+                .retrieve()
+                .bodyToFlux(DeviceResponseDTO.class)
+                .collectList()
+                .block();
+
+        assertNotNull(result);
+        assertEquals(spectrometer.id(), result.get(0).id());
+    }
 }
@@ -0,0 +1,150 @@
+package com.example.deviceapi.controller;
+
+import com.example.deviceapi.dto.DeviceRequestDTO;
+import com.example.deviceapi.dto.DeviceResponseDTO;
+import com.example.deviceapi.entity.DeviceState;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("reactive")
+@Testcontainers
+class ReactiveDeviceControllerIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15")
+            .withDatabaseName("device_db")
+            .withUsername("user")
+            .withPassword("password");
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.r2dbc.url", () -> "r2dbc:postgresql://" + postgres.getHost() + ":"
+                + postgres.getFirstMappedPort() + "/" + postgres.getDatabaseName());
+    }
+
+    @Autowired
+    WebTestClient client;
+
+    private DeviceResponseDTO createTestDevice(String name, String brand, DeviceState state) {
+        return client.post()
+                .uri("/api/v1/devices")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new DeviceRequestDTO(name, brand, state))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(DeviceResponseDTO.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    @Test
+    void testCreateAndGetDevice() {
+        var created = createTestDevice("Reactive", "BrandR", DeviceState.AVAILABLE);
+
+        assertNotNull(created.id());
+        client.get()
+                .uri("/api/v1/devices/" + created.id())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(DeviceResponseDTO.class)
+                .value(device -> assertEquals("Reactive", device.name()));
+    }
+
+    @Test
+    void testGetByBrandIsPaginatedByCursor() {
+        createTestDevice("RPaged1", "RPagedBrand", DeviceState.AVAILABLE);
+        createTestDevice("RPaged2", "RPagedBrand", DeviceState.AVAILABLE);
+
+        String cursor = client.get()
+                .uri("/api/v1/devices/brand/RPagedBrand?limit=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(DeviceResponseDTO.class).hasSize(1)
+                .returnResult()
+                .getResponseHeaders()
+                .getFirst(DeviceController.NEXT_CURSOR_HEADER);
+
+        List<DeviceResponseDTO> secondPage = client.get()
+                .uri("/api/v1/devices/brand/RPagedBrand?limit=1&after=" + cursor)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(DeviceResponseDTO.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertNotNull(secondPage);
+        assertEquals("RPaged2", secondPage.get(0).name());
+    }
+
+    @Test
+    void testUpdateInUseDeviceShouldFailWithProblem() {
+        var inUse = createTestDevice("RBusy", "Locked", DeviceState.IN_USE);
+
+        client.put()
+                .uri("/api/v1/devices/" + inUse.id())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new DeviceRequestDTO("Changed", "Changed", DeviceState.IN_USE))
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_PROBLEM_JSON)
+                .expectBody().jsonPath("$.title").isEqualTo("Device In Use");
+    }
+
+    @Test
+    void testDeleteDevice() {
+        var created = createTestDevice("RTrash", "Trash", DeviceState.AVAILABLE);
+
+        client.delete().uri("/api/v1/devices/" + created.id()).exchange().expectStatus().isNoContent();
+        client.get().uri("/api/v1/devices/" + created.id()).exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    void testWritesAreAddedToOutbox() throws SQLException {
+        var created = createTestDevice("ROutbox", "OutboxBrand", DeviceState.AVAILABLE);
+        client.put()
+                .uri("/api/v1/devices/" + created.id())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new DeviceRequestDTO("ROutbox", "OutboxBrand", DeviceState.INACTIVE))
+                .exchange()
+                .expectStatus().isOk();
+        client.delete().uri("/api/v1/devices/" + created.id()).exchange().expectStatus().isNoContent();
+
+        List<String> types = new ArrayList<>();
+        try (Connection connection = DriverManager.getConnection(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT type FROM device_outbox WHERE device_id = ? ORDER BY id")) {
+            statement.setLong(1, created.id());
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    types.add(result.getString(1));
+                }
+            }
+        }
+        assertEquals(List.of("CREATED", "UPDATED", "DELETED"), types);
+    }
+}
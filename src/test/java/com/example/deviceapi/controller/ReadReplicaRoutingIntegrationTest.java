@@ -0,0 +1,159 @@
+package com.example.deviceapi.controller;
+
+import com.example.deviceapi.config.ReadYourWritesFilter;
+import com.example.deviceapi.dto.DeviceRequestDTO;
+import com.example.deviceapi.dto.DeviceResponseDTO;
+import com.example.deviceapi.entity.DeviceState;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs against two independent databases standing in for a primary and its replica, so that the
+ * database answering a read can be told apart by the rows it holds.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Testcontainers
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ReadReplicaRoutingIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> primary = new PostgreSQLContainer<>("postgres:15")
+            .withDatabaseName("device_db")
+            .withUsername("user")
+            .withPassword("password");
+
+    @Container
+    static PostgreSQLContainer<?> replica = new PostgreSQLContainer<>("postgres:15")
+            .withDatabaseName("device_db")
+            .withUsername("user")
+            .withPassword("password");
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", primary::getJdbcUrl);
+        registry.add("spring.datasource.username", primary::getUsername);
+        registry.add("spring.datasource.password", primary::getPassword);
+        registry.add("spring.datasource.hikari.connection-timeout", () -> "2000");
+        registry.add("device-api.read-replicas.enabled", () -> "true");
+        registry.add("device-api.read-replicas.urls", replica::getJdbcUrl);
+        registry.add("device-api.read-replicas.health-check-interval", () -> "PT0.2S");
+    }
+
+    @BeforeAll
+    static void migrateReplica() throws SQLException {
+        Flyway.configure()
+                .dataSource(replica.getJdbcUrl(), replica.getUsername(), replica.getPassword())
+                .load()
+                .migrate();
+        try (Connection connection = DriverManager.getConnection(
+                replica.getJdbcUrl(), replica.getUsername(), replica.getPassword());
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("""
+                    INSERT INTO device (id, name, brand, state, creation_time, version)
+                    VALUES (1000000, 'ReplicaOnly', 'ReplicaBrand', 'AVAILABLE', now(), 0)""");
+        }
+    }
+
+    @LocalServerPort
+    int port;
+
+    private WebClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = WebClient.create("http://localhost:" + port);
+    }
+
+    @Test
+    @Order(1)
+    void testReadsGoToReplica() {
+        assertEquals(List.of("ReplicaOnly"), names("ReplicaBrand", null));
+    }
+
+    @Test
+    @Order(2)
+    void testReadsAfterWriteGoToPrimary() {
+        ResponseEntity<DeviceResponseDTO> created = client.post()
+                .uri("/api/v1/devices")
+                .bodyValue(new DeviceRequestDTO("PrimaryOnly", "PrimaryBrand", DeviceState.AVAILABLE))
+                .retrieve()
+                .toEntity(DeviceResponseDTO.class)
+                .block();
+        assertNotNull(created);
+        String setCookie = created.getHeaders().getFirst(HttpHeaders.SET_COOKIE);
+        assertNotNull(setCookie);
+        assertTrue(setCookie.startsWith(ReadYourWritesFilter.COOKIE + "="));
+
+        assertEquals(List.of(), names("PrimaryBrand", null));
+        assertEquals(List.of("PrimaryOnly"), names("PrimaryBrand", setCookie.substring(0, setCookie.indexOf(';'))));
+
+        DeviceResponseDTO found = client.get()
+                .uri("/api/v1/devices/" + created.getBody().id())
+                .retrieve()
+                .bodyToMono(DeviceResponseDTO.class)
+                .block();
+        assertNotNull(found);
+        assertEquals("PrimaryOnly", found.name());
+    }
+
+    @Test
+    @Order(3)
+    void testReadsFailOverToPrimaryWhenReplicaIsDown() throws InterruptedException {
+        replica.stop();
+
+        long deadline = System.currentTimeMillis() + 30_000;
+        List<String> names = List.of();
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                names = names("PrimaryBrand", null);
+            } catch (RuntimeException e) {
+                names = List.of();
+            }
+            if (!names.isEmpty()) {
+                break;
+            }
+            Thread.sleep(200);
+        }
+        assertEquals(List.of("PrimaryOnly"), names);
+    }
+
+    private List<String> names(String brand, String cookie) {
+        return client.get()
+                .uri("/api/v1/devices/brand/" + brand)
+                .headers(headers -> {
+                    if (cookie != null) {
+                        headers.add(HttpHeaders.COOKIE, cookie);
+                    }
+                })
+                .retrieve()
+                .bodyToFlux(DeviceResponseDTO.class)
+                .map(DeviceResponseDTO::name)
+                .collectList()
+                .block();
+    }
+}
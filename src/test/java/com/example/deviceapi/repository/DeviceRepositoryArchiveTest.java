@@ -0,0 +1,119 @@
+package com.example.deviceapi.repository;
+
+import com.example.deviceapi.entity.Device;
+import com.example.deviceapi.entity.DeviceState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that archival moves only the long-inactive devices, and that the default list queries leave them out.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers
+class DeviceRepositoryArchiveTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15")
+            .withDatabaseName("device_db")
+            .withUsername("user")
+            .withPassword("password");
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Autowired
+    DeviceRepository repository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    /**
+     * Loads a device in each state since long ago and since recently, IDs 1 to 3 old and 4 to 6 recent.
+     */
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("""
+                INSERT INTO device (id, name, brand, state, creation_time, state_changed_at)
+                VALUES (1, 'Old-1', 'Brand', 'AVAILABLE', TIMESTAMP '2020-01-01', TIMESTAMP '2020-01-01'),
+                       (2, 'Old-2', 'Brand', 'IN_USE', TIMESTAMP '2020-01-01', TIMESTAMP '2020-01-01'),
+                       (3, 'Old-3', 'Brand', 'INACTIVE', TIMESTAMP '2020-01-01', TIMESTAMP '2020-01-01'),
+                       (4, 'New-4', 'Brand', 'AVAILABLE', TIMESTAMP '2025-01-01', TIMESTAMP '2025-01-01'),
+                       (5, 'New-5', 'Brand', 'IN_USE', TIMESTAMP '2025-01-01', TIMESTAMP '2025-01-01'),
+                       (6, 'New-6', 'Brand', 'INACTIVE', TIMESTAMP '2025-01-01', TIMESTAMP '2025-01-01')""");
+    }
+
+    @Test
+    void archivalShouldMoveOnlyOldInactiveDevices() {
+        assertEquals(List.of(3L), repository.archiveInactive(CUTOFF, 100));
+        assertEquals(List.of(), repository.archiveInactive(CUTOFF, 100));
+
+        assertEquals(List.of(3L), jdbcTemplate.queryForList("SELECT id FROM device_archive", Long.class));
+        assertEquals(0L, jdbcTemplate.queryForObject("SELECT version FROM device WHERE id = 3", Long.class));
+    }
+
+    @Test
+    void archivalShouldCountFromLastStateChange() {
+        jdbcTemplate.update("UPDATE device SET state = 'INACTIVE' WHERE id = 1");
+
+        assertEquals(List.of(3L), repository.archiveInactive(CUTOFF, 100));
+        assertTrue(jdbcTemplate.queryForObject("SELECT state_changed_at FROM device WHERE id = 1", LocalDateTime.class)
+                .isAfter(CUTOFF));
+    }
+
+    @Test
+    void archivalShouldStopAtBatchSize() {
+        jdbcTemplate.update("UPDATE device SET state = 'INACTIVE'");
+        jdbcTemplate.update("UPDATE device SET state_changed_at = creation_time");
+
+        assertEquals(2, repository.archiveInactive(CUTOFF, 2).size());
+        assertEquals(1, repository.archiveInactive(CUTOFF, 2).size());
+    }
+
+    @Test
+    void listsShouldLeaveOutArchivedDevicesUnlessAsked() {
+        repository.archiveInactive(CUTOFF, 100);
+
+        assertEquals(List.of(1L, 2L, 4L, 5L, 6L), ids(repository.findByArchivedFalseAndIdGreaterThanOrderByIdAsc(0L, Limit.of(10))));
+        assertEquals(List.of(6L), ids(repository.findByArchivedFalseAndStateAndIdGreaterThanOrderByIdAsc(DeviceState.INACTIVE, 0L, Limit.of(10))));
+        assertEquals(List.of(3L, 6L), ids(repository.findByStateAndIdGreaterThanOrderByIdAsc(DeviceState.INACTIVE, 0L, Limit.of(10))));
+        assertTrue(repository.findById(3L).isPresent());
+    }
+
+    @Test
+    void updateShouldRestoreArchivedDevice() {
+        repository.archiveInactive(CUTOFF, 100);
+
+        assertTrue(repository.transition(3L, "INACTIVE", "AVAILABLE").isPresent());
+
+        assertFalse(jdbcTemplate.queryForObject("SELECT archived FROM device WHERE id = 3", Boolean.class));
+        assertEquals(0, jdbcTemplate.queryForList("SELECT id FROM device_archive", Long.class).size());
+    }
+
+    private static List<Long> ids(List<Device> devices) {
+        return devices.stream().map(Device::getId).toList();
+    }
+}
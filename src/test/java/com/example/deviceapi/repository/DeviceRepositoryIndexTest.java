@@ -0,0 +1,122 @@
+package com.example.deviceapi.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks with EXPLAIN that the device lookups are served by the indexes created by the migrations.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers
+class DeviceRepositoryIndexTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15")
+            .withDatabaseName("device_db")
+            .withUsername("user")
+            .withPassword("password");
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    /**
+     * Loads enough rows, with 100 brands and 1% of devices in use, for the planner to prefer the indexes.
+     */
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("""
+                INSERT INTO device (id, name, brand, state, creation_time, state_changed_at)
+                SELECT i, 'Device-' || i, 'Brand-' || (i % 100),
+                       CASE WHEN i % 100 = 0 THEN 'IN_USE' WHEN i % 2 = 0 THEN 'AVAILABLE' ELSE 'INACTIVE' END,
+                       TIMESTAMP '2024-01-01' + i * INTERVAL '1 minute', TIMESTAMP '2024-01-01' + i * INTERVAL '1 minute'
+                FROM generate_series(1, 50000) AS i""");
+        jdbcTemplate.execute("ANALYZE device");
+    }
+
+    @Test
+    void brandLookupShouldUseBrandIndex() {
+        String plan = explain("""
+                SELECT * FROM device
+                WHERE NOT archived AND deleted_at IS NULL AND brand = 'Brand-7' AND id > 1000
+                ORDER BY id LIMIT 101""");
+
+        assertTrue(plan.contains("idx_device_live_brand_id"), plan);
+    }
+
+    @Test
+    void stateLookupShouldUseStateIndex() {
+        String plan = explain("""
+                SELECT * FROM device
+                WHERE NOT archived AND deleted_at IS NULL AND state = 'IN_USE' AND id > 1000
+                ORDER BY id LIMIT 101""");
+
+        assertTrue(plan.contains("idx_device_live_state_id"), plan);
+    }
+
+    @Test
+    void hotLookupShouldSkipArchivePartition() {
+        String plan = explain("SELECT * FROM device WHERE NOT archived AND id > 1000 ORDER BY id LIMIT 101");
+
+        assertTrue(plan.contains("device_hot"), plan);
+        assertFalse(plan.contains("device_archive"), plan);
+    }
+
+    @Test
+    void archivalShouldUseInactiveIndex() {
+        String plan = explain("""
+                SELECT id FROM device
+                WHERE NOT archived AND state = 'INACTIVE' AND state_changed_at < TIMESTAMP '2024-01-02'
+                ORDER BY state_changed_at LIMIT 1000""");
+
+        assertTrue(plan.contains("idx_device_inactive_state_changed_at_hot"), plan);
+    }
+
+    @Test
+    void purgeShouldUseDeletedAtIndex() {
+        jdbcTemplate.update("UPDATE device SET deleted_at = TIMESTAMP '2024-06-01' WHERE id % 1000 = 0");
+        jdbcTemplate.execute("ANALYZE device");
+
+        String plan = explain("""
+                SELECT id FROM device WHERE deleted_at < TIMESTAMP '2024-07-01' ORDER BY deleted_at LIMIT 1000""");
+
+        assertTrue(plan.contains("idx_device_deleted_at"), plan);
+    }
+
+    @Test
+    void creationTimeOrderingShouldUseCreationTimeIndex() {
+        String plan = explain("SELECT * FROM device ORDER BY creation_time DESC LIMIT 10");
+
+        assertTrue(plan.contains("idx_device_creation_time"), plan);
+    }
+
+    @Test
+    void fuzzyNameSearchShouldUseTrigramIndex() {
+        String plan = explain("SELECT * FROM device WHERE '4242' <% name ORDER BY word_similarity('4242', name) DESC, id LIMIT 10");
+
+        assertTrue(plan.contains("idx_device_name_trgm"), plan);
+    }
+
+    private String explain(String sql) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+    }
+}
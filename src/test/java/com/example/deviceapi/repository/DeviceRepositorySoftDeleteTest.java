@@ -0,0 +1,128 @@
+package com.example.deviceapi.repository;
+
+import com.example.deviceapi.entity.Device;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that deleted devices are hidden from every query until the purge removes them.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers
+class DeviceRepositorySoftDeleteTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15")
+            .withDatabaseName("device_db")
+            .withUsername("user")
+            .withPassword("password");
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Autowired
+    DeviceRepository repository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    /**
+     * Loads an old and a recent device in each state, IDs 1 to 3 old and 4 to 6 recent.
+     */
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("""
+                INSERT INTO device (id, name, brand, state, creation_time)
+                VALUES (1, 'Old-1', 'Brand', 'AVAILABLE', TIMESTAMP '2020-01-01'),
+                       (2, 'Old-2', 'Brand', 'IN_USE', TIMESTAMP '2020-01-01'),
+                       (3, 'Old-3', 'Brand', 'INACTIVE', TIMESTAMP '2020-01-01'),
+                       (4, 'New-4', 'Brand', 'AVAILABLE', TIMESTAMP '2025-01-01'),
+                       (5, 'New-5', 'Brand', 'IN_USE', TIMESTAMP '2025-01-01'),
+                       (6, 'New-6', 'Brand', 'INACTIVE', TIMESTAMP '2025-01-01')""");
+    }
+
+    @Test
+    void bulkDeleteShouldMarkOnlyMatchingDevices() {
+        List<DeviceChange> deleted = repository.deleteAllUnlessInUse("INACTIVE", CUTOFF, 100);
+
+        assertEquals(List.of(3L), deleted.stream().map(DeviceChange::getId).toList());
+        assertEquals(6L, jdbcTemplate.queryForObject("SELECT count(*) FROM device", Long.class));
+        assertEquals(List.of(), repository.deleteAllUnlessInUse("IN_USE", CUTOFF, 100));
+    }
+
+    @Test
+    void bulkDeleteShouldStopAtBatchSize() {
+        jdbcTemplate.update("UPDATE device SET state = 'INACTIVE'");
+
+        assertEquals(2, repository.deleteAllUnlessInUse("INACTIVE", CUTOFF, 2).size());
+        assertEquals(1, repository.deleteAllUnlessInUse("INACTIVE", CUTOFF, 2).size());
+    }
+
+    @Test
+    void deletedDevicesShouldBeHiddenFromQueries() {
+        assertTrue(repository.deleteUnlessInUse(4L, null).isPresent());
+        assertTrue(repository.deleteUnlessInUse(4L, null).isEmpty());
+        assertTrue(repository.deleteUnlessInUse(5L, null).isEmpty());
+
+        assertTrue(repository.findById(4L).isEmpty());
+        assertEquals(List.of(1L, 2L, 3L, 5L, 6L), ids(repository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(10))));
+        assertTrue(repository.transition(4L, "AVAILABLE", "IN_USE").isEmpty());
+        assertTrue(repository.updateUnlessLocked(4L, "Back", null, null, null).isEmpty());
+        assertEquals(5L, repository.countByBrandAndState().stream().mapToLong(DeviceCount::getCount).sum());
+    }
+
+    @Test
+    void staleWriteShouldNotBringBackDeviceDeletedSinceLoaded() {
+        Device device = repository.findById(4L).orElseThrow();
+        assertTrue(repository.deleteUnlessInUse(4L, null).isPresent());
+
+        device.setName("Renamed");
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> repository.saveAndFlush(device));
+
+        assertNotNull(jdbcTemplate.queryForObject("SELECT deleted_at FROM device WHERE id = 4", LocalDateTime.class));
+        assertEquals("New-4", jdbcTemplate.queryForObject("SELECT name FROM device WHERE id = 4", String.class));
+    }
+
+    @Test
+    void purgeShouldRemoveOnlyDevicesDeletedBeforeTheGivenTime() {
+        jdbcTemplate.update("UPDATE device SET deleted_at = TIMESTAMP '2023-06-01' WHERE id IN (1, 3)");
+        jdbcTemplate.update("UPDATE device SET deleted_at = TIMESTAMP '2024-06-01' WHERE id = 4");
+
+        assertEquals(1, repository.purgeDeleted(CUTOFF, 1));
+        assertEquals(1, repository.purgeDeleted(CUTOFF, 1));
+        assertEquals(0, repository.purgeDeleted(CUTOFF, 1));
+
+        assertEquals(List.of(2L, 4L, 5L, 6L),
+                jdbcTemplate.queryForList("SELECT id FROM device ORDER BY id", Long.class));
+    }
+
+    private static List<Long> ids(List<Device> devices) {
+        return devices.stream().map(Device::getId).toList();
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.deviceapi.service;
+
+import com.example.deviceapi.dto.DeviceChangeDTO;
+import com.example.deviceapi.dto.DeviceResponseDTO;
+import com.example.deviceapi.entity.DeviceState;
+import com.example.deviceapi.service.impl.DeviceChangeFeed;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DeviceChangeFeedTest {
+
+    private static final DeviceChangeDTO GAP = new DeviceChangeDTO(-1, null, null, null, null, null, null, null);
+    private static final DeviceChangeDTO COMPLETE = new DeviceChangeDTO(-2, null, null, null, null, null, null, null);
+
+    private final DeviceChangeFeed feed = new DeviceChangeFeed(3, 2);
+
+    @Test
+    void shouldDeliverMatchingChanges() throws InterruptedException {
+        BlockingQueue<DeviceChangeDTO> received = new LinkedBlockingQueue<>();
+        Runnable cancel = feed.subscribe(null, DeviceState.IN_USE, null, subscriber(received));
+
+        feed.onDeviceChanged(DeviceChangedEvent.created(device(1L, "Brand", DeviceState.AVAILABLE)));
+        feed.onDeviceChanged(DeviceChangedEvent.updated(device(1L, "Brand", DeviceState.IN_USE), "Brand", DeviceState.AVAILABLE));
+        feed.onDeviceChanged(DeviceChangedEvent.updated(device(1L, "Brand", DeviceState.INACTIVE), "Brand", DeviceState.IN_USE));
+
+        DeviceChangeDTO checkout = received.poll(5, TimeUnit.SECONDS);
+        DeviceChangeDTO checkin = received.poll(5, TimeUnit.SECONDS);
+        cancel.run();
+
+        assertEquals(DeviceState.AVAILABLE, checkout.previousState());
+        assertEquals(DeviceState.IN_USE, checkout.state());
+        assertEquals(DeviceState.INACTIVE, checkin.state());
+        assertNull(received.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void shouldReplayAfterLastEventId() throws InterruptedException {
+        BlockingQueue<DeviceChangeDTO> live = new LinkedBlockingQueue<>();
+        Runnable cancelLive = feed.subscribe(null, null, null, subscriber(live));
+        feed.onDeviceChanged(DeviceChangedEvent.created(device(1L, "Brand", DeviceState.AVAILABLE)));
+        feed.onDeviceChanged(DeviceChangedEvent.created(device(2L, "Brand", DeviceState.AVAILABLE)));
+        long firstEventId = live.poll(5, TimeUnit.SECONDS).eventId();
+        cancelLive.run();
+
+        BlockingQueue<DeviceChangeDTO> resumed = new LinkedBlockingQueue<>();
+        Runnable cancel = feed.subscribe(null, null, firstEventId, subscriber(resumed));
+
+        assertEquals(2L, resumed.poll(5, TimeUnit.SECONDS).deviceId());
+        cancel.run();
+    }
+
+    @Test
+    void shouldReportGapWhenReplayIsIncomplete() throws InterruptedException {
+        for (long id = 1; id <= 5; id++) {
+            feed.onDeviceChanged(DeviceChangedEvent.created(device(id, "Brand", DeviceState.AVAILABLE)));
+        }
+
+        BlockingQueue<DeviceChangeDTO> received = new LinkedBlockingQueue<>();
+        Runnable cancel = feed.subscribe(null, null, 0L, subscriber(received));
+
+        assertEquals(GAP, received.poll(5, TimeUnit.SECONDS));
+        assertEquals(3L, received.poll(5, TimeUnit.SECONDS).deviceId());
+        cancel.run();
+    }
+
+    @Test
+    void shouldDeliverConcurrentChangesInEventIdOrder() throws InterruptedException {
+        DeviceChangeFeed largeFeed = new DeviceChangeFeed(1000, 1000);
+        BlockingQueue<DeviceChangeDTO> received = new LinkedBlockingQueue<>();
+        Runnable cancel = largeFeed.subscribe(null, null, null, subscriber(received));
+
+        List<Thread> publishers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            publishers.add(Thread.ofPlatform().start(() -> {
+                for (long id = 1; id <= 50; id++) {
+                    largeFeed.onDeviceChanged(DeviceChangedEvent.created(device(id, "Brand", DeviceState.AVAILABLE)));
+                }
+            }));
+        }
+        for (Thread publisher : publishers) {
+            publisher.join();
+        }
+
+        long previous = Long.MIN_VALUE;
+        for (int i = 0; i < 200; i++) {
+            long eventId = received.poll(5, TimeUnit.SECONDS).eventId();
+            assertTrue(eventId > previous);
+            previous = eventId;
+        }
+        cancel.run();
+    }
+
+    @Test
+    void shouldCloseSubscriberThatFallsBehind() throws InterruptedException {
+        BlockingQueue<DeviceChangeDTO> received = new LinkedBlockingQueue<>();
+        Object blocker = new Object();
+        Runnable cancel;
+        synchronized (blocker) {
+            cancel = feed.subscribe(null, null, null, new DeviceChangeFeed.Subscriber() {
+                @Override
+                public void onChange(DeviceChangeDTO change) {
+                    synchronized (blocker) {
+                        received.add(change);
+                    }
+                }
+
+                @Override
+                public void onGap() {
+                }
+
+                @Override
+                public void onComplete() {
+                    received.add(COMPLETE);
+                }
+            });
+            for (long id = 1; id <= 10; id++) {
+                feed.onDeviceChanged(DeviceChangedEvent.created(device(id, "Brand", DeviceState.AVAILABLE)));
+            }
+        }
+
+        DeviceChangeDTO last = null;
+        for (DeviceChangeDTO change = received.poll(5, TimeUnit.SECONDS); change != null; change = received.poll(5, TimeUnit.SECONDS)) {
+            last = change;
+            if (change == COMPLETE) {
+                break;
+            }
+        }
+        cancel.run();
+
+        assertEquals(COMPLETE, last);
+    }
+
+    private static DeviceChangeFeed.Subscriber subscriber(BlockingQueue<DeviceChangeDTO> received) {
+        return new DeviceChangeFeed.Subscriber() {
+            @Override
+            public void onChange(DeviceChangeDTO change) {
+                received.add(change);
+            }
+
+            @Override
+            public void onGap() {
+                received.add(GAP);
+            }
+
+            @Override
+            public void onComplete() {
+                received.add(COMPLETE);
+            }
+        };
+    }
+
+    private static DeviceResponseDTO device(Long id, String brand, DeviceState state) {
+        return new DeviceResponseDTO(id, "Device " + id, brand, state, null, 0L);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.deviceapi.service;
+
+import com.example.deviceapi.dto.DeviceResponseDTO;
+import com.example.deviceapi.dto.DeviceStatsDTO;
+import com.example.deviceapi.entity.DeviceState;
+import com.example.deviceapi.repository.DeviceCount;
+import com.example.deviceapi.repository.DeviceRepository;
+import com.example.deviceapi.service.impl.DeviceInventory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class DeviceInventoryTest {
+
+    private DeviceRepository repository;
+    private DeviceInventory inventory;
+
+    @BeforeEach
+    void setup() {
+        repository = mock(DeviceRepository.class);
+        inventory = new DeviceInventory(repository);
+    }
+
+    @Test
+    void shouldCountChanges() {
+        inventory.onDeviceChanged(DeviceChangedEvent.created(device(1L, "Brand A", DeviceState.AVAILABLE)));
+        inventory.onDeviceChanged(DeviceChangedEvent.created(device(2L, "Brand A", DeviceState.AVAILABLE)));
+        inventory.onDeviceChanged(DeviceChangedEvent.created(device(3L, "Brand B", DeviceState.INACTIVE)));
+        inventory.onDeviceChanged(DeviceChangedEvent.updated(device(2L, "Brand A", DeviceState.IN_USE), "Brand A", DeviceState.AVAILABLE));
+        inventory.onDeviceChanged(DeviceChangedEvent.deleted(device(3L, "Brand B", DeviceState.INACTIVE)));
+
+        DeviceStatsDTO stats = inventory.snapshot();
+
+        assertEquals(2, stats.total());
+        assertEquals(Map.of(DeviceState.AVAILABLE, 1L, DeviceState.IN_USE, 1L, DeviceState.INACTIVE, 0L), stats.byState());
+        assertEquals(Map.of("Brand A", 2L), stats.byBrand());
+        assertEquals(Map.of("Brand A", Map.of(DeviceState.AVAILABLE, 1L, DeviceState.IN_USE, 1L)), stats.byBrandAndState());
+    }
+
+    @Test
+    void shouldReconcileWithDatabase() {
+        inventory.onDeviceChanged(DeviceChangedEvent.created(device(1L, "Stale", DeviceState.AVAILABLE)));
+        when(repository.countByBrandAndState()).thenReturn(List.of(count("Brand A", DeviceState.INACTIVE, 5)));
+
+        inventory.reconcile();
+        DeviceStatsDTO stats = inventory.snapshot();
+
+        assertEquals(5, stats.total());
+        assertEquals(Map.of("Brand A", 5L), stats.byBrand());
+    }
+
+    private static DeviceResponseDTO device(Long id, String brand, DeviceState state) {
+        return new DeviceResponseDTO(id, "Device " + id, brand, state, null, 0L);
+    }
+
+    private static DeviceCount count(String brand, DeviceState state, long count) {
+        DeviceCount deviceCount = mock(DeviceCount.class);
+        when(deviceCount.getBrand()).thenReturn(brand);
+        when(deviceCount.getState()).thenReturn(state);
+        when(deviceCount.getCount()).thenReturn(count);
+        return deviceCount;
+    }
+}
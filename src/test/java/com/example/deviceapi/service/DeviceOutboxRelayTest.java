@@ -0,0 +1,77 @@
+package com.example.deviceapi.service;
+
+import com.example.deviceapi.entity.DeviceOutboxEvent;
+import com.example.deviceapi.repository.DeviceOutboxRepository;
+import com.example.deviceapi.service.impl.DeviceOutboxRelay;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DeviceOutboxRelayTest {
+
+    private DeviceOutboxRepository repository;
+    private DeviceEventSink sink;
+    private SimpleMeterRegistry registry;
+    private DeviceOutboxRelay relay;
+
+    @BeforeEach
+    void setup() {
+        repository = mock(DeviceOutboxRepository.class);
+        sink = mock(DeviceEventSink.class);
+        registry = new SimpleMeterRegistry();
+        relay = new DeviceOutboxRelay(repository, sink, mock(PlatformTransactionManager.class), registry, 2);
+    }
+
+    @Test
+    void shouldRelayBatchesUntilDrained() throws Exception {
+        DeviceOutboxEvent first = event(1L);
+        DeviceOutboxEvent second = event(2L);
+        DeviceOutboxEvent third = event(3L);
+        when(repository.lockBatch(2)).thenReturn(List.of(first, second), List.of(third));
+
+        relay.relay();
+
+        verify(sink).deliver(List.of(first, second));
+        verify(sink).deliver(List.of(third));
+        verify(repository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(repository).deleteAllByIdInBatch(List.of(3L));
+        assertEquals(3, registry.get("device.outbox.delivered").counter().count());
+        assertEquals(3, registry.get("device.outbox.lag").timer().count());
+    }
+
+    @Test
+    void shouldKeepEventsWhenDeliveryFails() throws Exception {
+        DeviceOutboxEvent event = event(1L);
+        when(repository.lockBatch(2)).thenReturn(List.of(event));
+        doThrow(new IOException("down")).when(sink).deliver(List.of(event));
+
+        relay.relay();
+
+        verify(repository, never()).deleteAllByIdInBatch(any());
+        assertEquals(1, registry.get("device.outbox.failures").counter().count());
+        assertEquals(0, registry.get("device.outbox.delivered").counter().count());
+    }
+
+    private static DeviceOutboxEvent event(Long id) {
+        return DeviceOutboxEvent.builder()
+                .id(id)
+                .type("CREATED")
+                .deviceId(id)
+                .payload("{}")
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.deviceapi.service;
+
+import com.example.deviceapi.config.AdaptiveConcurrencyLimiter;
+import com.example.deviceapi.repository.DeviceRepository;
+import com.example.deviceapi.service.impl.DevicePurger;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyInt;
+import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DevicePurgerTest {
+
+    private DeviceRepository repository;
+    private AdaptiveConcurrencyLimiter limiter;
+    private SimpleMeterRegistry registry;
+    private DevicePurger purger;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setup() {
+        repository = mock(DeviceRepository.class);
+        limiter = new AdaptiveConcurrencyLimiter(10, 1, 100);
+        ObjectProvider<AdaptiveConcurrencyLimiter> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(limiter);
+        registry = new SimpleMeterRegistry();
+        purger = new DevicePurger(repository, mock(PlatformTransactionManager.class), provider, registry,
+                Duration.ofHours(1), 2, 0.5);
+    }
+
+    @Test
+    void shouldPurgeBatchesUntilDone() {
+        when(repository.purgeDeleted(any(), eq(2))).thenReturn(2, 1);
+
+        purger.purge();
+
+        verify(repository, times(2)).purgeDeleted(any(), eq(2));
+        assertEquals(3, registry.get("device.purged").counter().count());
+    }
+
+    @Test
+    void shouldWaitForLightLoad() {
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire(AdaptiveConcurrencyLimiter.Priority.HIGH);
+        }
+
+        purger.purge();
+
+        verify(repository, never()).purgeDeleted(any(), anyInt());
+    }
+}
@@ -1,28 +1,56 @@
 
 package com.example.deviceapi.service;
 
+import com.example.deviceapi.config.CacheConfig;
+import com.example.deviceapi.dto.DeviceBatchRequestDTO;
+import com.example.deviceapi.dto.DeviceBatchResponseDTO;
+import com.example.deviceapi.dto.DeviceBatchUpdateDTO;
+import com.example.deviceapi.dto.DevicePageDTO;
 import com.example.deviceapi.dto.DeviceRequestDTO;
 import com.example.deviceapi.dto.DeviceResponseDTO;
+import com.example.deviceapi.dto.DeviceSearchDTO;
+import com.example.deviceapi.dto.DeviceStatsDTO;
 import com.example.deviceapi.entity.Device;
 import com.example.deviceapi.entity.DeviceState;
 import com.example.deviceapi.exception.DeviceInUseException;
 import com.example.deviceapi.exception.DeviceNotFoundException;
+import com.example.deviceapi.exception.DeviceStateConflictException;
+import com.example.deviceapi.exception.DeviceVersionMismatchException;
+import com.example.deviceapi.exception.InvalidCursorException;
+import com.example.deviceapi.exception.InvalidSearchException;
 import com.example.deviceapi.mapper.DeviceMapper;
+import com.example.deviceapi.repository.DeviceChange;
 import com.example.deviceapi.repository.DeviceRepository;
+import com.example.deviceapi.service.impl.DeviceCursor;
+import com.example.deviceapi.service.impl.DeviceInventory;
 import com.example.deviceapi.service.impl.DeviceServiceImpl;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.any;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.anyInt;
+import static org.mockito.Mockito.anyIterable;
+import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -30,13 +58,26 @@ public class DeviceServiceTest {
 
     private DeviceRepository repository;
     private DeviceMapper mapper;
+    private EntityManager entityManager;
+    private ApplicationEventPublisher events;
+    private DeviceInventory inventory;
+    private DeviceNameIndex nameIndex;
+    private Cache cache;
     private DeviceServiceImpl service;
 
     @BeforeEach
     void setup() {
         repository = mock(DeviceRepository.class);
         mapper = mock(DeviceMapper.class);
-        service = new DeviceServiceImpl(repository, mapper);
+        entityManager = mock(EntityManager.class);
+        events = mock(ApplicationEventPublisher.class);
+        inventory = mock(DeviceInventory.class);
+        nameIndex = mock(DeviceNameIndex.class);
+        cache = mock(Cache.class);
+        CacheManager cacheManager = mock(CacheManager.class);
+        when(cacheManager.getCache(CacheConfig.DEVICES_CACHE)).thenReturn(cache);
+        service = new DeviceServiceImpl(repository, mapper, entityManager, events, inventory, nameIndex,
+                mock(PlatformTransactionManager.class), cacheManager);
     }
 
     @Test
@@ -44,7 +85,7 @@ public class DeviceServiceTest {
         DeviceRequestDTO request = new DeviceRequestDTO("Device 1", "Brand A", DeviceState.AVAILABLE);
         Device device = new Device();
         device.setCreationTime(LocalDateTime.now());
-        DeviceResponseDTO response = new DeviceResponseDTO(1L, "Device 1", "Brand A", DeviceState.AVAILABLE, device.getCreationTime());
+        DeviceResponseDTO response = new DeviceResponseDTO(1L, "Device 1", "Brand A", DeviceState.AVAILABLE, device.getCreationTime(), 0L);
 
         when(mapper.toEntity(request)).thenReturn(device);
         when(repository.save(any(Device.class))).thenReturn(device);
@@ -54,73 +95,200 @@ public class DeviceServiceTest {
 
         assertEquals("Device 1", result.name());
         verify(repository).save(device);
+        verify(events).publishEvent(DeviceChangedEvent.created(response));
+    }
+
+    @Test
+    void shouldApplyBatchReportingEachItem() {
+        DeviceRequestDTO create = new DeviceRequestDTO("New", "Brand", DeviceState.AVAILABLE);
+        Device newDevice = new Device();
+        DeviceChange updated = change("Brand", DeviceState.AVAILABLE);
+        DeviceChange deleted = change("Brand", DeviceState.INACTIVE);
+        DeviceResponseDTO updatedDto = new DeviceResponseDTO(1L, "A2", "Brand", DeviceState.IN_USE, null, 1L);
+        DeviceResponseDTO deletedDto = new DeviceResponseDTO(3L, "C", "Brand", DeviceState.INACTIVE, null, 1L);
+
+        when(mapper.toEntity(create)).thenReturn(newDevice);
+        when(repository.updateUnlessLocked(1L, "A2", "Brand", "IN_USE", null)).thenReturn(Optional.of(updated));
+        when(repository.updateUnlessLocked(2L, "B2", "Brand", "IN_USE", null)).thenReturn(Optional.empty());
+        when(repository.updateUnlessLocked(9L, "X", "Brand", "AVAILABLE", null)).thenReturn(Optional.empty());
+        when(repository.deleteUnlessInUse(3L, null)).thenReturn(Optional.of(deleted));
+        when(repository.deleteUnlessInUse(2L, null)).thenReturn(Optional.empty());
+        when(repository.deleteUnlessInUse(9L, null)).thenReturn(Optional.empty());
+        when(repository.existsById(2L)).thenReturn(true);
+        when(repository.existsById(9L)).thenReturn(false);
+        when(mapper.toResponse(updated)).thenReturn(updatedDto);
+        when(mapper.toResponse(deleted)).thenReturn(deletedDto);
+
+        DeviceBatchResponseDTO result = service.batch(new DeviceBatchRequestDTO(
+                List.of(create),
+                List.of(new DeviceBatchUpdateDTO(1L, "A2", "Brand", DeviceState.IN_USE),
+                        new DeviceBatchUpdateDTO(2L, "B2", "Brand", DeviceState.IN_USE),
+                        new DeviceBatchUpdateDTO(9L, "X", "Brand", DeviceState.AVAILABLE)),
+                List.of(3L, 2L, 9L)));
+
+        assertEquals(201, result.create().get(0).status());
+        assertNotNull(newDevice.getCreationTime());
+        assertEquals(List.of(200, 409, 404), result.update().stream().map(item -> item.status()).toList());
+        assertEquals(List.of(204, 409, 404), result.delete().stream().map(item -> item.status()).toList());
+        assertEquals(updatedDto, result.update().get(0).device());
+        verify(repository).saveAll(List.of(newDevice));
+        verify(repository, never()).findAllById(anyIterable());
+        verify(events).publishEvent(DeviceChangedEvent.updated(updatedDto, "Brand", DeviceState.AVAILABLE));
+        verify(events).publishEvent(DeviceChangedEvent.deleted(deletedDto));
+    }
+
+    @Test
+    void shouldAcceptBatchWithMissingLists() {
+        DeviceBatchResponseDTO result = service.batch(new DeviceBatchRequestDTO(null, null, null));
+
+        assertEquals(0, result.create().size());
+        assertEquals(0, result.update().size());
+        assertEquals(0, result.delete().size());
     }
 
     @Test
     void shouldUpdateDevice() {
         Long id = 1L;
-        Device existing = new Device();
-        existing.setState(DeviceState.AVAILABLE);
+        DeviceChange updated = change("Brand A", DeviceState.AVAILABLE);
         DeviceRequestDTO request = new DeviceRequestDTO("Updated", "Brand B", DeviceState.IN_USE);
-        DeviceResponseDTO response = new DeviceResponseDTO(id, "Updated", "Brand B", DeviceState.IN_USE, LocalDateTime.now());
+        DeviceResponseDTO response = new DeviceResponseDTO(id, "Updated", "Brand B", DeviceState.IN_USE, LocalDateTime.now(), 0L);
 
-        when(repository.findById(id)).thenReturn(Optional.of(existing));
-        doNothing().when(mapper).update(request, existing);
-        when(mapper.toDTO(existing)).thenReturn(response);
+        when(repository.updateUnlessLocked(id, "Updated", "Brand B", "IN_USE", null)).thenReturn(Optional.of(updated));
+        when(mapper.toResponse(updated)).thenReturn(response);
 
-        DeviceResponseDTO result = service.update(id, request);
+        DeviceResponseDTO result = service.update(id, request, null);
 
         assertEquals("Updated", result.name());
+        verify(events).publishEvent(DeviceChangedEvent.updated(response, "Brand A", DeviceState.AVAILABLE));
     }
 
     @Test
     void shouldNotUpdateInUseDevice() {
-        Device device = new Device();
-        device.setName("Old");
-        device.setName("Brand");
-        device.setState(DeviceState.IN_USE);
+        when(repository.updateUnlessLocked(1L, "New", "Brand", "IN_USE", null)).thenReturn(Optional.empty());
+        when(repository.findById(1L)).thenReturn(Optional.of(new Device()));
 
-        when(repository.findById(1L)).thenReturn(Optional.of(device));
+        DeviceRequestDTO request = new DeviceRequestDTO("New", "Brand", DeviceState.IN_USE);
+
+        assertThrows(DeviceInUseException.class, () -> service.update(1L, request, null));
+    }
+
+    @Test
+    void shouldNotUpdateOutdatedVersion() {
+        Device current = Device.builder().id(1L).version(4L).build();
+        when(repository.updateUnlessLocked(1L, "New", "Brand", "IN_USE", 3L)).thenReturn(Optional.empty());
+        when(repository.findById(1L)).thenReturn(Optional.of(current));
+
+        DeviceRequestDTO request = new DeviceRequestDTO("New", "Brand", DeviceState.IN_USE);
+
+        assertThrows(DeviceVersionMismatchException.class, () -> service.update(1L, request, List.of(3L)));
+    }
+
+    @Test
+    void shouldUpdateWhenAnyExpectedVersionMatches() {
+        DeviceChange updated = change("Brand", DeviceState.AVAILABLE);
+        DeviceResponseDTO response = new DeviceResponseDTO(1L, "New", "Brand", DeviceState.IN_USE, null, 5L);
+        when(repository.updateUnlessLocked(1L, "New", "Brand", "IN_USE", 3L)).thenReturn(Optional.empty());
+        when(repository.updateUnlessLocked(1L, "New", "Brand", "IN_USE", 4L)).thenReturn(Optional.of(updated));
+        when(mapper.toResponse(updated)).thenReturn(response);
+
+        DeviceRequestDTO request = new DeviceRequestDTO("New", "Brand", DeviceState.IN_USE);
+
+        assertEquals(response, service.update(1L, request, List.of(3L, 4L)));
+    }
+
+    @Test
+    void shouldFailAnyVersionConditionOnMissingDevice() {
+        when(repository.deleteUnlessInUse(1L, null)).thenReturn(Optional.empty());
+        when(repository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(DeviceVersionMismatchException.class, () -> service.delete(1L, List.of()));
+    }
+
+    @Test
+    void shouldNotUpdateMissingDevice() {
+        when(repository.updateUnlessLocked(1L, "New", "Brand", "IN_USE", null)).thenReturn(Optional.empty());
+        when(repository.findById(1L)).thenReturn(Optional.empty());
 
         DeviceRequestDTO request = new DeviceRequestDTO("New", "Brand", DeviceState.IN_USE);
 
-        assertThrows(DeviceInUseException.class, () -> service.update(1L, request));
+        assertThrows(DeviceNotFoundException.class, () -> service.update(1L, request, null));
     }
 
     @Test
     void shouldPartiallyUpdateDevice() {
-        Device device = new Device();
-        device.setState(DeviceState.AVAILABLE);
+        DeviceChange updated = change("Brand", DeviceState.AVAILABLE);
         DeviceRequestDTO request = new DeviceRequestDTO("Partial", "Brand", DeviceState.AVAILABLE);
-        DeviceResponseDTO response = new DeviceResponseDTO(1L, "Partial", "Brand", DeviceState.AVAILABLE, LocalDateTime.now());
+        DeviceResponseDTO response = new DeviceResponseDTO(1L, "Partial", "Brand", DeviceState.AVAILABLE, LocalDateTime.now(), 0L);
 
-        when(repository.findById(1L)).thenReturn(Optional.of(device));
-        doNothing().when(mapper).update(request, device);
-        when(mapper.toDTO(device)).thenReturn(response);
+        when(repository.updateUnlessLocked(1L, "Partial", "Brand", "AVAILABLE", null)).thenReturn(Optional.of(updated));
+        when(mapper.toResponse(updated)).thenReturn(response);
 
-        DeviceResponseDTO result = service.partialUpdate(1L, request);
+        DeviceResponseDTO result = service.partialUpdate(1L, request, null);
 
         assertEquals("Partial", result.name());
     }
 
     @Test
-    void shouldNotPartiallyUpdateInUseDeviceChangingNameOrBrand() {
-        Device device = new Device();
-        device.setState(DeviceState.IN_USE);
-        device.setName("Original");
-        device.setBrand("BrandX");
+    void shouldKeepMissingFieldsOnPartialUpdate() {
+        DeviceChange updated = change("Brand", DeviceState.AVAILABLE);
+        DeviceRequestDTO request = new DeviceRequestDTO(null, null, DeviceState.INACTIVE);
+
+        when(repository.updateUnlessLocked(1L, null, null, "INACTIVE", null)).thenReturn(Optional.of(updated));
 
+        service.partialUpdate(1L, request, null);
+
+        verify(repository).updateUnlessLocked(1L, null, null, "INACTIVE", null);
+    }
+
+    @Test
+    void shouldNotPartiallyUpdateInUseDeviceChangingNameOrBrand() {
         DeviceRequestDTO request = new DeviceRequestDTO("NewName", "BrandX", DeviceState.IN_USE);
 
-        when(repository.findById(1L)).thenReturn(Optional.of(device));
+        when(repository.updateUnlessLocked(1L, "NewName", "BrandX", "IN_USE", null)).thenReturn(Optional.empty());
+        when(repository.findById(1L)).thenReturn(Optional.of(new Device()));
+
+        assertThrows(DeviceInUseException.class, () -> service.partialUpdate(1L, request, null));
+    }
+
+    @Test
+    void shouldCheckOutDevice() {
+        DeviceChange checkedOut = change("Brand", DeviceState.AVAILABLE);
+        DeviceResponseDTO response = new DeviceResponseDTO(1L, "Device", "Brand", DeviceState.IN_USE, LocalDateTime.now(), 1L);
+
+        when(repository.transition(1L, "AVAILABLE", "IN_USE")).thenReturn(Optional.of(checkedOut));
+        when(mapper.toResponse(checkedOut)).thenReturn(response);
+
+        assertEquals(response, service.checkout(1L));
+        verify(events).publishEvent(DeviceChangedEvent.updated(response, "Brand", DeviceState.AVAILABLE));
+    }
 
-        assertThrows(DeviceInUseException.class, () -> service.partialUpdate(1L, request));
+    @Test
+    void shouldNotCheckOutUnavailableDevice() {
+        when(repository.transition(1L, "AVAILABLE", "IN_USE")).thenReturn(Optional.empty());
+        when(repository.findById(1L)).thenReturn(Optional.of(new Device()));
+
+        assertThrows(DeviceStateConflictException.class, () -> service.checkout(1L));
+    }
+
+    @Test
+    void shouldNotCheckInMissingDevice() {
+        when(repository.transition(1L, "IN_USE", "AVAILABLE")).thenReturn(Optional.empty());
+        when(repository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(DeviceNotFoundException.class, () -> service.checkin(1L));
+    }
+
+    @Test
+    void shouldReportNoAvailableDeviceOfBrand() {
+        when(repository.claimAvailable("Brand")).thenReturn(Optional.empty());
+
+        assertThrows(DeviceStateConflictException.class, () -> service.checkoutAny("Brand"));
     }
 
     @Test
     void shouldFindById() {
         Device device = new Device();
-        DeviceResponseDTO dto = new DeviceResponseDTO(1L, "Device", "Brand", DeviceState.AVAILABLE, LocalDateTime.now());
+        DeviceResponseDTO dto = new DeviceResponseDTO(1L, "Device", "Brand", DeviceState.AVAILABLE, LocalDateTime.now(), 0L);
 
         when(repository.findById(1L)).thenReturn(Optional.of(device));
         when(mapper.toDTO(device)).thenReturn(dto);
@@ -141,64 +309,211 @@ public class DeviceServiceTest {
     @Test
     void shouldFindAll() {
         Device device = new Device();
-        DeviceResponseDTO dto = new DeviceResponseDTO(1L, "Device", "Brand", DeviceState.AVAILABLE, LocalDateTime.now());
+        DeviceResponseDTO dto = new DeviceResponseDTO(1L, "Device", "Brand", DeviceState.AVAILABLE, LocalDateTime.now(), 0L);
 
-        when(repository.findAll()).thenReturn(List.of(device));
+        when(repository.findByArchivedFalseAndIdGreaterThanOrderByIdAsc(0L, Limit.of(11))).thenReturn(List.of(device));
         when(mapper.toDTO(device)).thenReturn(dto);
 
-        List<DeviceResponseDTO> result = service.findAll();
+        DevicePageDTO result = service.findAll(null, 10, false);
+
+        assertEquals(1, result.items().size());
+        assertNull(result.nextCursor());
+    }
+
+    @Test
+    void shouldReturnNextCursorWhenMoreDevicesExist() {
+        Device first = Device.builder().id(1L).build();
+        Device second = Device.builder().id(2L).build();
+        Device third = Device.builder().id(3L).build();
+
+        when(repository.findByArchivedFalseAndIdGreaterThanOrderByIdAsc(0L, Limit.of(3))).thenReturn(List.of(first, second, third));
+
+        DevicePageDTO result = service.findAll(null, 2, false);
+
+        assertEquals(2, result.items().size());
+        assertEquals(2L, DeviceCursor.decode(result.nextCursor()));
+    }
+
+    @Test
+    void shouldSeekAfterCursor() {
+        when(repository.findByArchivedFalseAndIdGreaterThanOrderByIdAsc(42L, Limit.of(101))).thenReturn(List.of());
+
+        DevicePageDTO result = service.findAll(DeviceCursor.encode(42L), 100, false);
+
+        assertEquals(0, result.items().size());
+        verify(repository).findByArchivedFalseAndIdGreaterThanOrderByIdAsc(42L, Limit.of(101));
+    }
+
+    @Test
+    void shouldCapPageSize() {
+        when(repository.findByArchivedFalseAndIdGreaterThanOrderByIdAsc(0L, Limit.of(DeviceService.MAX_PAGE_SIZE + 1))).thenReturn(List.of());
+
+        service.findAll(null, Integer.MAX_VALUE, false);
 
-        assertEquals(1, result.size());
+        verify(repository).findByArchivedFalseAndIdGreaterThanOrderByIdAsc(0L, Limit.of(DeviceService.MAX_PAGE_SIZE + 1));
+    }
+
+    @Test
+    void shouldRejectMalformedCursor() {
+        assertThrows(InvalidCursorException.class, () -> service.findAll("not-a-cursor", 10, false));
     }
 
     @Test
     void shouldFindByBrand() {
         Device device = new Device();
-        DeviceResponseDTO dto = new DeviceResponseDTO(1L, "Device", "Brand", DeviceState.AVAILABLE, LocalDateTime.now());
+        DeviceResponseDTO dto = new DeviceResponseDTO(1L, "Device", "Brand", DeviceState.AVAILABLE, LocalDateTime.now(), 0L);
 
-        when(repository.findByBrand("Brand")).thenReturn(List.of(device));
+        when(repository.findByArchivedFalseAndBrandAndIdGreaterThanOrderByIdAsc("Brand", 0L, Limit.of(11))).thenReturn(List.of(device));
         when(mapper.toDTO(device)).thenReturn(dto);
 
-        List<DeviceResponseDTO> result = service.findByBrand("Brand");
+        DevicePageDTO result = service.findByBrand("Brand", null, 10, false);
+
+        assertEquals(1, result.items().size());
+    }
+
+    @Test
+    void shouldIncludeArchivedDevicesWhenAsked() {
+        when(repository.findByBrandAndIdGreaterThanOrderByIdAsc("Brand", 0L, Limit.of(11))).thenReturn(List.of());
+
+        service.findByBrand("Brand", null, 10, true);
 
-        assertEquals(1, result.size());
+        verify(repository).findByBrandAndIdGreaterThanOrderByIdAsc("Brand", 0L, Limit.of(11));
+        verify(repository, never()).findByArchivedFalseAndBrandAndIdGreaterThanOrderByIdAsc(any(), any(), any());
     }
 
 
     @Test
     void shouldFindByState() {
         Device device = new Device();
-        DeviceResponseDTO dto = new DeviceResponseDTO(1L, "Device", "Brand", DeviceState.AVAILABLE, LocalDateTime.now());
+        DeviceResponseDTO dto = new DeviceResponseDTO(1L, "Device", "Brand", DeviceState.AVAILABLE, LocalDateTime.now(), 0L);
 
-        when(repository.findByState(DeviceState.AVAILABLE)).thenReturn(List.of(device));
+        when(repository.findByArchivedFalseAndStateAndIdGreaterThanOrderByIdAsc(DeviceState.AVAILABLE, 0L, Limit.of(11))).thenReturn(List.of(device));
         when(mapper.toDTO(device)).thenReturn(dto);
 
-        List<DeviceResponseDTO> result = service.findByState(DeviceState.AVAILABLE);
+        DevicePageDTO result = service.findByState(DeviceState.AVAILABLE, null, 10, false);
 
-        assertEquals(1, result.size());
+        assertEquals(1, result.items().size());
     }
 
 
     @Test
-    void shouldDeleteDevice() {
-        Device device = new Device();
-        device.setState(DeviceState.AVAILABLE);
+    void shouldSearchSelectedPropertiesWithStableSort() {
+        List<Map<String, Object>> devices = List.of(Map.of("name", "Device"));
+        when(repository.search(any(), eq(List.of("name", "state")),
+                eq(Sort.by(Sort.Direction.DESC, "creationTime").and(Sort.by("id"))), eq(10))).thenReturn(devices);
 
-        when(repository.findById(1L)).thenReturn(Optional.of(device));
+        List<Map<String, Object>> result = service.search(new DeviceSearchDTO(
+                "Brand", DeviceState.AVAILABLE, "Dev", null, null, "creationTime,desc", 10, List.of("name", "state"), false));
+
+        assertEquals(devices, result);
+    }
+
+    @Test
+    void shouldSearchAllPropertiesByDefault() {
+        service.search(new DeviceSearchDTO(null, null, null, null, null, null, 10, null, false));
 
-        service.delete(1L);
+        verify(repository).search(any(), eq(List.of("id", "name", "brand", "state", "creationTime", "version")),
+                eq(Sort.by("id")), eq(10));
+    }
+
+    @Test
+    void shouldRejectUnknownSearchProperty() {
+        assertThrows(InvalidSearchException.class, () -> service.search(new DeviceSearchDTO(
+                null, null, null, null, null, "id", 10, List.of("secret"), false)));
+        assertThrows(InvalidSearchException.class, () -> service.search(new DeviceSearchDTO(
+                null, null, null, null, null, "name,sideways", 10, null, false)));
+    }
+
+    @Test
+    void shouldSearchByNameWithCappedLimit() {
+        DeviceResponseDTO dto = new DeviceResponseDTO(1L, "Scanner", "Brand", DeviceState.AVAILABLE, LocalDateTime.now(), 0L);
+        when(nameIndex.search("scaner", DeviceService.MAX_PAGE_SIZE)).thenReturn(List.of(dto));
+
+        assertEquals(List.of(dto), service.searchByName(" scaner ", Integer.MAX_VALUE));
+        assertEquals(List.of(), service.searchByName("  ", 10));
+    }
+
+    @Test
+    void shouldExportAllDevicesDetachingEach() {
+        Device first = Device.builder().id(1L).build();
+        Device second = Device.builder().id(2L).build();
+        DeviceResponseDTO firstDto = new DeviceResponseDTO(1L, "Device 1", "Brand", DeviceState.AVAILABLE, LocalDateTime.now(), 0L);
+        DeviceResponseDTO secondDto = new DeviceResponseDTO(2L, "Device 2", "Brand", DeviceState.AVAILABLE, LocalDateTime.now(), 0L);
+
+        when(repository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(first, second));
+        when(mapper.toDTO(first)).thenReturn(firstDto);
+        when(mapper.toDTO(second)).thenReturn(secondDto);
+
+        List<DeviceResponseDTO> exported = new ArrayList<>();
+        service.exportAll(exported::add);
+
+        assertEquals(List.of(firstDto, secondDto), exported);
+        verify(entityManager).detach(first);
+        verify(entityManager).detach(second);
+    }
+
+    @Test
+    void shouldDeleteDevice() {
+        DeviceChange deleted = change("Brand", DeviceState.INACTIVE);
+        DeviceResponseDTO response = new DeviceResponseDTO(1L, "Device", "Brand", DeviceState.INACTIVE, LocalDateTime.now(), 0L);
+        when(repository.deleteUnlessInUse(1L, null)).thenReturn(Optional.of(deleted));
+        when(mapper.toResponse(deleted)).thenReturn(response);
+
+        service.delete(1L, null);
 
-        verify(repository).delete(device);
+        verify(repository).deleteUnlessInUse(1L, null);
+        verify(events).publishEvent(DeviceChangedEvent.deleted(response));
     }
 
     @Test
     void shouldNotDeleteInUseDevice() {
-        Device device = new Device();
-        device.setState(DeviceState.IN_USE);
+        when(repository.deleteUnlessInUse(1L, null)).thenReturn(Optional.empty());
+        when(repository.findById(1L)).thenReturn(Optional.of(new Device()));
 
-        when(repository.findById(1L)).thenReturn(Optional.of(device));
+        assertThrows(DeviceInUseException.class, () -> service.delete(1L, null));
+    }
+
+    @Test
+    void shouldNotDeleteMissingDevice() {
+        when(repository.deleteUnlessInUse(1L, null)).thenReturn(Optional.empty());
+        when(repository.findById(1L)).thenReturn(Optional.empty());
 
-        assertThrows(DeviceInUseException.class, () -> service.delete(1L));
+        assertThrows(DeviceNotFoundException.class, () -> service.delete(1L, null));
     }
-}
 
+    @Test
+    void shouldDeleteAllMatchingDevicesInBatches() {
+        LocalDateTime createdBefore = LocalDateTime.of(2024, 1, 1, 0, 0);
+        DeviceChange first = change("Brand", DeviceState.INACTIVE);
+        DeviceChange second = change("Brand", DeviceState.INACTIVE);
+        DeviceResponseDTO firstResponse = new DeviceResponseDTO(1L, "First", "Brand", DeviceState.INACTIVE, createdBefore, 0L);
+        DeviceResponseDTO secondResponse = new DeviceResponseDTO(2L, "Second", "Brand", DeviceState.INACTIVE, createdBefore, 0L);
+        when(first.getId()).thenReturn(1L);
+        when(second.getId()).thenReturn(2L);
+        when(repository.deleteAllUnlessInUse(eq("INACTIVE"), eq(createdBefore), anyInt())).thenReturn(List.of(first, second));
+        when(mapper.toResponse(first)).thenReturn(firstResponse);
+        when(mapper.toResponse(second)).thenReturn(secondResponse);
+
+        assertEquals(2, service.deleteAll(DeviceState.INACTIVE, createdBefore));
+
+        verify(events).publishEvent(DeviceChangedEvent.deleted(firstResponse));
+        verify(events).publishEvent(DeviceChangedEvent.deleted(secondResponse));
+        verify(cache).evict(1L);
+        verify(cache).evict(2L);
+    }
+
+    @Test
+    void shouldReturnInventoryStats() {
+        DeviceStatsDTO stats = new DeviceStatsDTO(0, Map.of(), Map.of(), Map.of());
+        when(inventory.snapshot()).thenReturn(stats);
+
+        assertEquals(stats, service.stats());
+    }
+
+    private static DeviceChange change(String previousBrand, DeviceState previousState) {
+        DeviceChange change = mock(DeviceChange.class);
+        when(change.getPreviousBrand()).thenReturn(previousBrand);
+        when(change.getPreviousState()).thenReturn(previousState);
+        return change;
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.deviceapi.service;
+
+import com.example.deviceapi.dto.DeviceRequestDTO;
+import com.example.deviceapi.dto.DeviceResponseDTO;
+import com.example.deviceapi.entity.DeviceState;
+import com.example.deviceapi.exception.DeviceStateConflictException;
+import com.example.deviceapi.exception.IdempotencyKeyReusedException;
+import com.example.deviceapi.service.impl.IdempotencyServiceImpl;
+import com.example.deviceapi.service.impl.InMemoryIdempotencyStore;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class IdempotencyServiceTest {
+
+    private static final DeviceRequestDTO REQUEST = new DeviceRequestDTO("Phone", "Brand", DeviceState.AVAILABLE);
+
+    private IdempotencyService idempotency;
+    private AtomicInteger calls;
+
+    @BeforeEach
+    void setup() {
+        JsonMapper objectMapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        Duration ttl = Duration.ofMinutes(5);
+        idempotency = new IdempotencyServiceImpl(new InMemoryIdempotencyStore(100, ttl), objectMapper, ttl,
+                Duration.ofMinutes(1));
+        calls = new AtomicInteger();
+    }
+
+    @Test
+    void shouldReplayResponseOfSameKey() {
+        DeviceResponseDTO first = create("key-1");
+        DeviceResponseDTO second = create("key-1");
+
+        assertEquals(first, second);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void shouldRunEveryRequestWithoutKey() {
+        create(null);
+        create(null);
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void shouldScopeKeysByOperation() {
+        create("key-1");
+        idempotency.execute("key-1", "other", REQUEST, DeviceResponseDTO.class, this::device);
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void shouldScopeKeysByClient() {
+        try {
+            asClient("10.0.0.1");
+            create("key-1");
+            asClient("10.0.0.2");
+            create("key-1");
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void shouldRejectKeyReusedWithDifferentRequest() {
+        create("key-1");
+
+        DeviceRequestDTO other = new DeviceRequestDTO("Tablet", "Brand", DeviceState.AVAILABLE);
+        assertThrows(IdempotencyKeyReusedException.class,
+                () -> idempotency.execute("key-1", "create", other, DeviceResponseDTO.class, this::device));
+    }
+
+    @Test
+    void shouldRunAgainAfterFailure() {
+        assertThrows(DeviceStateConflictException.class, () -> idempotency.execute("key-1", "create", REQUEST,
+                DeviceResponseDTO.class, () -> {
+                    throw new DeviceStateConflictException("boom");
+                }));
+
+        create("key-1");
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void shouldCoalesceConcurrentRequests() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<DeviceResponseDTO> slow = () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return device();
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<DeviceResponseDTO> first = executor.submit(
+                    () -> idempotency.execute("key-1", "create", REQUEST, DeviceResponseDTO.class, slow));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            List<Future<DeviceResponseDTO>> duplicates = List.of(
+                    executor.submit(() -> idempotency.execute("key-1", "create", REQUEST, DeviceResponseDTO.class, slow)),
+                    executor.submit(() -> idempotency.execute("key-1", "create", REQUEST, DeviceResponseDTO.class, slow)));
+            release.countDown();
+
+            DeviceResponseDTO response = first.get(5, TimeUnit.SECONDS);
+            for (Future<DeviceResponseDTO> duplicate : duplicates) {
+                assertEquals(response, duplicate.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void asClient(String address) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(address);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    private DeviceResponseDTO create(String key) {
+        return idempotency.execute(key, "create", REQUEST, DeviceResponseDTO.class, this::device);
+    }
+
+    private DeviceResponseDTO device() {
+        long id = calls.incrementAndGet();
+        return new DeviceResponseDTO(id, REQUEST.name(), REQUEST.brand(), REQUEST.state(),
+                LocalDateTime.of(2024, 1, 1, 0, 0), 0L);
+    }
+}
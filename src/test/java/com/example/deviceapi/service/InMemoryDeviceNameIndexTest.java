@@ -0,0 +1,64 @@
+package com.example.deviceapi.service;
+
+import com.example.deviceapi.dto.DeviceResponseDTO;
+import com.example.deviceapi.entity.DeviceState;
+import com.example.deviceapi.mapper.DeviceMapper;
+import com.example.deviceapi.repository.DeviceRepository;
+import com.example.deviceapi.service.impl.InMemoryDeviceNameIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+public class InMemoryDeviceNameIndexTest {
+
+    private InMemoryDeviceNameIndex index;
+
+    @BeforeEach
+    void setup() {
+        index = new InMemoryDeviceNameIndex(mock(DeviceRepository.class), mock(DeviceMapper.class));
+        index.onDeviceChanged(DeviceChangedEvent.created(device(1L, "Scanner A")));
+        index.onDeviceChanged(DeviceChangedEvent.created(device(2L, "Barcode Scanner")));
+        index.onDeviceChanged(DeviceChangedEvent.created(device(3L, "Printer")));
+    }
+
+    @Test
+    void shouldMatchMisspelledNames() {
+        List<Long> ids = index.search("scaner", 10).stream().map(DeviceResponseDTO::id).toList();
+
+        assertEquals(List.of(1L, 2L), ids);
+    }
+
+    @Test
+    void shouldRankBestMatchFirst() {
+        List<Long> ids = index.search("barcode scanner", 10).stream().map(DeviceResponseDTO::id).toList();
+
+        assertEquals(List.of(2L), ids);
+    }
+
+    @Test
+    void shouldFollowRenamesAndDeletes() {
+        index.onDeviceChanged(DeviceChangedEvent.updated(device(3L, "Scanner Pro"), "Brand", DeviceState.AVAILABLE));
+        index.onDeviceChanged(DeviceChangedEvent.deleted(device(1L, "Scanner A")));
+
+        List<Long> ids = index.search("scanner", 10).stream().map(DeviceResponseDTO::id).toList();
+
+        assertEquals(List.of(2L, 3L), ids);
+    }
+
+    @Test
+    void shouldDropArchivedDevices() {
+        index.onDevicesArchived(new DevicesArchivedEvent(List.of(1L)));
+
+        List<Long> ids = index.search("scanner", 10).stream().map(DeviceResponseDTO::id).toList();
+
+        assertEquals(List.of(2L), ids);
+    }
+
+    private static DeviceResponseDTO device(Long id, String name) {
+        return new DeviceResponseDTO(id, name, "Brand", DeviceState.AVAILABLE, null, 0L);
+    }
+}